@@ -0,0 +1,35 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserPrincipal;
+
+import java.util.Date;
+
+// Shared fixtures for the benchmarks
+final class BenchmarkUsers {
+
+    static final String SECRET = "benchmark-secret";
+    static final String PASSWORD = "P@ssw0rd-benchmark";
+
+    private BenchmarkUsers() {}
+
+    static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserId("1234567890");
+        user.setFirstName("John");
+        user.setLastName("Smith");
+        user.setEmail("john.smith@example.com");
+        user.setUsername("john.smith");
+        user.setJoinDate(new Date());
+        user.setRoles(new String[]{"ROLE_ADMIN"});
+        user.setAuthorities(new String[]{"user:read", "user:create", "user:update", "user:delete"});
+        user.setActive(true);
+        user.setNotLocked(true);
+        return user;
+    }
+
+    static UserPrincipal principal() {
+        return new UserPrincipal(user());
+    }
+}
@@ -0,0 +1,57 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.supportportal.domain.HttpResponse;
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.exception.ExceptionHandling;
+import com.supportportal.supportportal.utility.ErrorResponseWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of building and serializing an error response, as done for every rejected request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlingBenchmark {
+
+    private ExceptionHandling exceptionHandling;
+    private ObjectMapper objectMapper;
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Setup
+    public void setUp() throws Exception {
+        exceptionHandling = new ExceptionHandling();
+        objectMapper = new ObjectMapper();
+        errorResponseWriter = new ErrorResponseWriter(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] badCredentialsResponse() throws Exception {
+        ResponseEntity<HttpResponse> responseEntity = exceptionHandling.badCredentialsException();
+        return objectMapper.writeValueAsBytes(responseEntity.getBody());
+    }
+
+    // What the security entry point used to do for every 403: a new ObjectMapper and a full serialization
+    @Benchmark
+    public MockHttpServletResponse forbiddenWithNewObjectMapper() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpResponse httpResponse = new HttpResponse(HttpStatus.FORBIDDEN.value(), HttpStatus.FORBIDDEN,
+                HttpStatus.FORBIDDEN.getReasonPhrase().toUpperCase(), SecurityConstant.FORBIDDEN_MESSAGE);
+        new ObjectMapper().writeValue(response.getOutputStream(), httpResponse);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse forbiddenWithErrorResponseWriter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        errorResponseWriter.write(response, HttpStatus.FORBIDDEN, SecurityConstant.FORBIDDEN_MESSAGE);
+        return response;
+    }
+}
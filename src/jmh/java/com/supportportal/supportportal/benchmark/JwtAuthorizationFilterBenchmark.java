@@ -0,0 +1,66 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.filter.JwtAuthorizationFilter;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import com.supportportal.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+// Full pass of JwtAuthorizationFilter.doFilterInternal with mock servlet objects
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthorizationFilterBenchmark {
+
+    // OncePerRequestFilter marks the request as filtered, the mark has to be removed to reuse the request
+    private static final String ALREADY_FILTERED = JwtAuthorizationFilter.class.getName() + ".FILTERED";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {};
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    private JwtAuthorizationFilter jwtAuthorizationFilter;
+    private MockHttpServletRequest authorizedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JWTTokenProvider jwtTokenProvider = new JWTTokenProvider(BenchmarkUsers.SECRET, new VerifiedTokenCache(tokenCache, 10_000), new SimpleMeterRegistry());
+        jwtAuthorizationFilter = new JwtAuthorizationFilter(jwtTokenProvider, new SimpleMeterRegistry());
+        String token = jwtTokenProvider.generateJwtToken(BenchmarkUsers.principal());
+
+        authorizedRequest = new MockHttpServletRequest("GET", "/user/home");
+        authorizedRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstant.TOKEN_PREFIX + token);
+        anonymousRequest = new MockHttpServletRequest("GET", "/user/home");
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        authorizedRequest.removeAttribute(ALREADY_FILTERED);
+        anonymousRequest.removeAttribute(ALREADY_FILTERED);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void authorizedRequest() throws Exception {
+        jwtAuthorizationFilter.doFilter(authorizedRequest, response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void requestWithoutToken() throws Exception {
+        jwtAuthorizationFilter.doFilter(anonymousRequest, response, NO_OP_CHAIN);
+    }
+}
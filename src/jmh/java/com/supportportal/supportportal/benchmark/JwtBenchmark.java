@@ -0,0 +1,44 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.domain.VerifiedToken;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import com.supportportal.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Token generation (login) and verification (every authenticated request), with and without the verified-token cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    private JWTTokenProvider jwtTokenProvider;
+    private UserPrincipal userPrincipal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JWTTokenProvider(BenchmarkUsers.SECRET, new VerifiedTokenCache(tokenCache, 10_000), new SimpleMeterRegistry());
+        userPrincipal = BenchmarkUsers.principal();
+        token = jwtTokenProvider.generateJwtToken(userPrincipal);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtTokenProvider.generateJwtToken(userPrincipal);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyToken() {
+        return jwtTokenProvider.verifyToken(token);
+    }
+}
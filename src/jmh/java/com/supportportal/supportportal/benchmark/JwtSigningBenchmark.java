@@ -0,0 +1,49 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.domain.VerifiedToken;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import com.supportportal.supportportal.utility.JwtSigningKeys;
+import com.supportportal.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Sign and verify cost of each signing mode, without the verified-token cache so that every verification checks the signature
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({JwtSigningKeys.HS512, JwtSigningKeys.RS256, JwtSigningKeys.ES256})
+    public String algorithm;
+
+    private JWTTokenProvider jwtTokenProvider;
+    private UserPrincipal userPrincipal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKeys jwtSigningKeys = JwtSigningKeys.HS512.equals(algorithm)
+                ? JwtSigningKeys.hmac(BenchmarkUsers.SECRET)
+                : JwtSigningKeys.asymmetric(algorithm, Map.of("benchmark", JwtSigningKeys.generateKeyPair(algorithm)), null);
+        jwtTokenProvider = new JWTTokenProvider(jwtSigningKeys, new VerifiedTokenCache(false, 0), new SimpleMeterRegistry());
+        userPrincipal = BenchmarkUsers.principal();
+        token = jwtTokenProvider.generateJwtToken(userPrincipal);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtTokenProvider.generateJwtToken(userPrincipal);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtTokenProvider.verifyToken(token);
+    }
+}
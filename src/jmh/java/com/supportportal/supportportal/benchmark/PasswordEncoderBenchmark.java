@@ -0,0 +1,33 @@
+package com.supportportal.supportportal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// BCrypt cost grows exponentially with the strength, so this is measured in milliseconds per operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = bCryptPasswordEncoder.encode(BenchmarkUsers.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bCryptPasswordEncoder.matches(BenchmarkUsers.PASSWORD, encodedPassword);
+    }
+}
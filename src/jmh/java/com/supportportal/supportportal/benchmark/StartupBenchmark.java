@@ -0,0 +1,141 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import com.supportportal.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*  Time from launching the JVM to the first authenticated request answered, per startup mode:
+ *  dev          the default configuration (eager beans, ddl-auto: create)
+ *  prod         the prod profile (lazy beans, Flyway and schema validation, deferred JPA bootstrap)
+ *  prod-aot     plus the AOT-processed bean definitions
+ *  prod-aot-cds plus the class data sharing archive, recorded by a training run on the first invocation
+ *  Runs the extracted jar built by mvn -Pproduction package, against an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path APPLICATION = Path.of("target", "application");
+    private static final String JAR = "supportportal-0.0.1-SNAPSHOT.jar";
+    private static final String MAIN_CLASS = "com.supportportal.supportportal.SupportportalApplication";
+    private static final long TIMEOUT_MILLIS = 300_000;
+
+    @Param({"dev", "prod", "prod-aot", "prod-aot-cds"})
+    public String mode;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private String classpath;
+    private String token;
+    private Process application;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (!Files.exists(APPLICATION.resolve(JAR))) {
+            throw new IllegalStateException("Build the application first with: mvn -Pproduction package");
+        }
+        String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        classpath = APPLICATION.resolve(JAR) + File.pathSeparator + h2;
+        token = new JWTTokenProvider(BenchmarkUsers.SECRET, new VerifiedTokenCache(false, 1), new SimpleMeterRegistry())
+                .generateJwtToken(BenchmarkUsers.principal());
+        if (mode.endsWith("-cds")) {
+            Files.deleteIfExists(archive());
+            List<String> training = command(freePort(), "-XX:ArchiveClassesAtExit=" + archive(), "-Dspring.context.exit=onRefresh");
+            Process process = start(training, "training");
+            if (!process.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) || !Files.exists(archive())) {
+                process.destroyForcibly();
+                throw new IllegalStateException("The CDS training run failed, see target/startup/training.log");
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+            application = null;
+        }
+    }
+
+    @Benchmark
+    public int firstAuthenticatedRequest() throws Exception {
+        int port = freePort();
+        application = start(command(port), mode);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user/list?size=1"))
+                .header("Authorization", "Bearer " + token).build();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline && application.isAlive()) {
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+                throw new IllegalStateException("Unexpected status " + response.statusCode() + ", see target/startup/" + mode + ".log");
+            } catch (ConnectException exception) {
+                Thread.sleep(10);
+            }
+        }
+        throw new IllegalStateException("The application did not answer, see target/startup/" + mode + ".log");
+    }
+
+    private List<String> command(int port, String... jvmOptions) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(jvmOptions));
+        if (mode.startsWith("prod")) {
+            command.add("-Dspring.profiles.active=prod");
+        }
+        if (mode.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        if (mode.endsWith("-cds") && jvmOptions.length == 0) {
+            command.add("-XX:SharedArchiveFile=" + archive());
+        }
+        command.addAll(List.of("-cp", classpath, MAIN_CLASS,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--jwt.secret=" + BenchmarkUsers.SECRET,
+                "--image.directory=" + Path.of("target", "startup", "images").toAbsolutePath()));
+        return command;
+    }
+
+    private static Process start(List<String> command, String logName) throws IOException {
+        Path log = Path.of("target", "startup", logName + ".log");
+        Files.createDirectories(log.getParent());
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+    }
+
+    private static Path archive() {
+        return Path.of("target", "startup", "application.jsa").toAbsolutePath();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
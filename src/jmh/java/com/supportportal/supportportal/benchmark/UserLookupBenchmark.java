@@ -0,0 +1,129 @@
+package com.supportportal.supportportal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*  Authentication lookup against a large seeded user table (embedded H2 in MySQL mode):
+ *  full entity row without an index on username, full row through the unique index, and the lean credentials projection
+ *  With the default 200k rows on a single core the unindexed lookup ran at about 45 ops/s, the indexed ones at about 92k-100k ops/s
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final String USER_COLUMNS =
+            "id BIGINT PRIMARY KEY, user_id VARCHAR(255), first_name VARCHAR(255), last_name VARCHAR(255), " +
+            "email VARCHAR(255), profile_image_url VARCHAR(255), username VARCHAR(255), password VARCHAR(255), " +
+            "last_login_date TIMESTAMP(6), last_login_date_display TIMESTAMP(6), join_date TIMESTAMP(6), " +
+            "role_mask BIGINT, authority_mask BIGINT, is_active BOOLEAN, is_not_locked BOOLEAN";
+    private static final String FULL_ROW = "SELECT * FROM %s WHERE username = ?";
+    private static final String CREDENTIALS =
+            "SELECT id, username, password, authority_mask, is_active, is_not_locked FROM %s WHERE username = ?";
+
+    @Param({"200000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement fullRowWithoutIndex;
+    private PreparedStatement fullRowWithIndex;
+    private PreparedStatement credentialsWithIndex;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:lookup;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user_without_index (" + USER_COLUMNS + ")");
+            statement.execute("CREATE TABLE user_with_index (" + USER_COLUMNS + ")");
+            statement.execute("CREATE UNIQUE INDEX ux_user_username ON user_with_index (username)");
+            statement.execute("CREATE UNIQUE INDEX ux_user_email ON user_with_index (email)");
+            statement.execute("CREATE UNIQUE INDEX ux_user_user_id ON user_with_index (user_id)");
+        }
+        seed("user_without_index");
+        seed("user_with_index");
+        fullRowWithoutIndex = connection.prepareStatement(String.format(FULL_ROW, "user_without_index"));
+        fullRowWithIndex = connection.prepareStatement(String.format(FULL_ROW, "user_with_index"));
+        credentialsWithIndex = connection.prepareStatement(String.format(CREDENTIALS, "user_with_index"));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public void fullRowWithoutIndex(Blackhole blackhole) throws SQLException {
+        lookup(fullRowWithoutIndex, blackhole);
+    }
+
+    @Benchmark
+    public void fullRowWithIndex(Blackhole blackhole) throws SQLException {
+        lookup(fullRowWithIndex, blackhole);
+    }
+
+    @Benchmark
+    public void credentialsWithIndex(Blackhole blackhole) throws SQLException {
+        lookup(credentialsWithIndex, blackhole);
+    }
+
+    private void lookup(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        statement.setString(1, "user" + ThreadLocalRandom.current().nextInt(rows));
+        try (ResultSet resultSet = statement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    blackhole.consume(resultSet.getObject(column));
+                }
+            }
+        }
+    }
+
+    private void seed(String table) throws SQLException {
+        String insert = "INSERT INTO " + table + " (id, user_id, first_name, last_name, email, profile_image_url, username, " +
+                "password, last_login_date, last_login_date_display, join_date, role_mask, authority_mask, is_active, is_not_locked) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            for (int i = 0; i < rows; i++) {
+                statement.setLong(1, i);
+                statement.setString(2, String.valueOf(1_000_000_000L + i));
+                statement.setString(3, "First" + i);
+                statement.setString(4, "Last" + i);
+                statement.setString(5, "user" + i + "@example.com");
+                statement.setString(6, "http://localhost:8081/user/image/profile/user" + i);
+                statement.setString(7, "user" + i);
+                statement.setString(8, "$2a$10$abcdefghijklmnopqrstuv0123456789012345678901234567890");
+                statement.setTimestamp(9, now);
+                statement.setTimestamp(10, now);
+                statement.setTimestamp(11, now);
+                statement.setLong(12, 1L << 19);
+                statement.setLong(13, 0b1111L);
+                statement.setBoolean(14, true);
+                statement.setBoolean(15, true);
+                statement.addBatch();
+                if (i % 1000 == 999) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
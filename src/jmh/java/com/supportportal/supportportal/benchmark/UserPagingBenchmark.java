@@ -0,0 +1,121 @@
+package com.supportportal.supportportal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/*  User listing page cost by depth (embedded H2 in MySQL mode):
+ *  LIMIT/OFFSET has to walk past every earlier row, the keyset query seeks on the primary key.
+ *  H2 keeps row counts in its B-tree pages and can skip an OFFSET cheaply, InnoDB cannot, so the gap here is a lower bound
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class UserPagingBenchmark {
+
+    private static final String SUMMARY_COLUMNS = "id, user_id, first_name, last_name, email, username, profile_image_url, " +
+            "last_login_date_display, join_date, role_mask, authority_mask, is_active, is_not_locked";
+    private static final String OFFSET_PAGE = "SELECT " + SUMMARY_COLUMNS + " FROM user ORDER BY id LIMIT ? OFFSET ?";
+    private static final String KEYSET_PAGE = "SELECT " + SUMMARY_COLUMNS + " FROM user WHERE id > ? ORDER BY id LIMIT ?";
+
+    @Param({"1", "10000"})
+    public int page;
+
+    @Param({"50"})
+    public int size;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetPage;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:paging;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user (id BIGINT PRIMARY KEY, user_id VARCHAR(255), first_name VARCHAR(255), " +
+                    "last_name VARCHAR(255), email VARCHAR(255), profile_image_url VARCHAR(255), username VARCHAR(255), " +
+                    "password VARCHAR(255), last_login_date_display TIMESTAMP(6), join_date TIMESTAMP(6), " +
+                    "role_mask BIGINT, authority_mask BIGINT, is_active BOOLEAN, is_not_locked BOOLEAN)");
+        }
+        seed(page * size + size);
+        offsetPage = connection.prepareStatement(OFFSET_PAGE);
+        keysetPage = connection.prepareStatement(KEYSET_PAGE);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public void offset(Blackhole blackhole) throws SQLException {
+        offsetPage.setInt(1, size);
+        offsetPage.setLong(2, (long) (page - 1) * size);
+        read(offsetPage, blackhole);
+    }
+
+    // Ids are dense here, so the last id of the previous page is simply (page - 1) * size
+    @Benchmark
+    public void keyset(Blackhole blackhole) throws SQLException {
+        keysetPage.setLong(1, (long) (page - 1) * size);
+        keysetPage.setInt(2, size);
+        read(keysetPage, blackhole);
+    }
+
+    private void read(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    blackhole.consume(resultSet.getObject(column));
+                }
+            }
+        }
+    }
+
+    private void seed(int rows) throws SQLException {
+        String insert = "INSERT INTO user (id, user_id, first_name, last_name, email, profile_image_url, username, password, " +
+                "last_login_date_display, join_date, role_mask, authority_mask, is_active, is_not_locked) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            for (int i = 1; i <= rows; i++) {
+                statement.setLong(1, i);
+                statement.setString(2, String.valueOf(1_000_000_000L + i));
+                statement.setString(3, "First" + i);
+                statement.setString(4, "Last" + i);
+                statement.setString(5, "user" + i + "@example.com");
+                statement.setString(6, "http://localhost:8081/user/image/profile/user" + i);
+                statement.setString(7, "user" + i);
+                statement.setString(8, "$2a$10$abcdefghijklmnopqrstuv0123456789012345678901234567890");
+                statement.setTimestamp(9, now);
+                statement.setTimestamp(10, now);
+                statement.setLong(11, 1L << 16);
+                statement.setLong(12, 0b1L);
+                statement.setBoolean(13, true);
+                statement.setBoolean(14, true);
+                statement.addBatch();
+                if (i % 1000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,29 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.domain.UserPrincipal;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    private UserPrincipal userPrincipal;
+
+    @Setup
+    public void setUp() {
+        userPrincipal = BenchmarkUsers.principal();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userPrincipal.getAuthorities();
+    }
+}
@@ -0,0 +1,112 @@
+package com.supportportal.supportportal.benchmark;
+
+import com.supportportal.supportportal.domain.UserSearchIndexStats;
+import com.supportportal.supportportal.service.impl.UserSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/*  Type-ahead search over a million users: the in-memory trigram index against the LIKE '%q%' query it replaces
+ *  (embedded H2 in MySQL mode, case-insensitive like the default MySQL collation).
+ *  Both stop after the first page of results, so common queries are cheap for LIKE too;
+ *  rare and missing terms make it scan the whole table while the index only walks its shortest posting list
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UserSearchBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSearchBenchmark.class);
+    private static final String[] FIRST_NAMES = {"John", "Mary", "Anna", "James", "Linda", "Robert", "Karen", "Michael",
+            "Sarah", "David", "Laura", "Daniel", "Emma", "Thomas", "Olivia", "Joseph"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Martin", "Lopez", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Thompson"};
+    private static final String[] DOMAINS = {"example.com", "mail.org", "support.net", "company.io"};
+    private static final String LIKE_SEARCH = "SELECT id, username, email, first_name, last_name FROM user " +
+            "WHERE username LIKE ? OR email LIKE ? OR first_name LIKE ? OR last_name LIKE ? LIMIT ?";
+    private static final int LIMIT = 20;
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"jo", "martin", "k123456", "zzq"})
+    public String query;
+
+    private UserSearchIndex index;
+    private Connection connection;
+    private PreparedStatement likeSearch;
+
+    @Setup
+    public void setUp() throws SQLException {
+        index = new UserSearchIndex(null);
+        connection = DriverManager.getConnection("jdbc:h2:mem:search;MODE=MySQL;NON_KEYWORDS=USER;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user (id BIGINT PRIMARY KEY, username VARCHAR(255), email VARCHAR(255), " +
+                    "first_name VARCHAR(255), last_name VARCHAR(255))");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO user VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= users; id++) {
+                String firstName = FIRST_NAMES[id % FIRST_NAMES.length];
+                String lastName = LAST_NAMES[(id / FIRST_NAMES.length) % LAST_NAMES.length];
+                String username = Character.toLowerCase(firstName.charAt(0)) + lastName.toLowerCase() + id;
+                String email = username + "@" + DOMAINS[id % DOMAINS.length];
+                index.put(id, username, email, firstName, lastName);
+                insert.setLong(1, id);
+                insert.setString(2, username);
+                insert.setString(3, email);
+                insert.setString(4, firstName);
+                insert.setString(5, lastName);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        likeSearch = connection.prepareStatement(LIKE_SEARCH);
+        UserSearchIndexStats stats = index.getStats();
+        LOGGER.info("Index: " + stats.users() + " users, " + stats.trigrams() + " grams, " + stats.postings()
+                + " postings, about " + stats.estimatedBytes() / (1024 * 1024) + " MB");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public Object index() {
+        return index.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public void like(Blackhole blackhole) throws SQLException {
+        String pattern = "%" + query + "%";
+        for (int i = 1; i <= 4; i++) {
+            likeSearch.setString(i, pattern);
+        }
+        likeSearch.setInt(5, LIMIT);
+        try (ResultSet resultSet = likeSearch.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(1));
+                blackhole.consume(resultSet.getString(2));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.supportportal.supportportal.configuration;
+
+import com.supportportal.supportportal.utility.ReadWriteRoutingDataSource;
+import com.supportportal.supportportal.utility.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*  Builds the Hikari pool from spring.datasource, the way Spring Boot would,
+ *  and with replicas.enabled a pool per replica URL behind a ReadWriteRoutingDataSource.
+ *  The choice is made when the bean is created, not with conditions, so an ahead-of-time build can still switch it.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${replicas.enabled:false}") boolean replicasEnabled,
+                                 @Value("${replicas.urls:}") List<String> replicaUrls,
+                                 @Value("${replicas.max-lag:5}") long maxLagSeconds,
+                                 @Value("${replicas.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                 @Value("${replicas.lag-check-interval:1000}") long lagCheckIntervalMillis,
+                                 ReadYourWrites readYourWrites) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary");
+        if (!replicasEnabled || replicaUrls.isEmpty()) {
+            return primary;
+        }
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, pool(properties, environment, replicaUrls.get(i).trim(), name));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, maxLagSeconds, lagQuery, lagCheckIntervalMillis, readYourWrites);
+    }
+
+    // Replicas share the credentials and the spring.datasource.hikari settings of the primary
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
@@ -0,0 +1,103 @@
+package com.supportportal.supportportal.configuration;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.supportportal.supportportal.service.impl.UserDirectory;
+import com.supportportal.supportportal.service.impl.UserSearchIndex;
+import com.supportportal.supportportal.utility.ExpiringLoadingCache;
+import com.supportportal.supportportal.utility.ReadWriteRoutingDataSource;
+import com.supportportal.supportportal.utility.VerifiedCredentialCache;
+import com.supportportal.supportportal.utility.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*  Binds the statistics the components already keep to the meter registry.
+ *  These meters are read when the registry is scraped, so they cost nothing on the request path.
+ *  Hikari pool, JVM and repository invocation metrics come from Spring Boot's auto-configuration,
+ *  except for the replica pools, which are not beans and are bound by the routing DataSource.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics(VerifiedTokenCache verifiedTokenCache) {
+        return registry -> {
+            FunctionCounter.builder(MetricConstant.JWT_CACHE + ".gets", verifiedTokenCache, VerifiedTokenCache::getHitCount)
+                    .tag(MetricConstant.RESULT, "hit").register(registry);
+            FunctionCounter.builder(MetricConstant.JWT_CACHE + ".gets", verifiedTokenCache, VerifiedTokenCache::getMissCount)
+                    .tag(MetricConstant.RESULT, "miss").register(registry);
+            Gauge.builder(MetricConstant.JWT_CACHE + ".size", verifiedTokenCache, VerifiedTokenCache::size).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder verifiedCredentialCacheMetrics(VerifiedCredentialCache verifiedCredentialCache) {
+        return registry -> {
+            FunctionCounter.builder(MetricConstant.LOGIN_CREDENTIAL_CACHE + ".gets", verifiedCredentialCache, VerifiedCredentialCache::getHitCount)
+                    .tag(MetricConstant.RESULT, "hit").register(registry);
+            FunctionCounter.builder(MetricConstant.LOGIN_CREDENTIAL_CACHE + ".gets", verifiedCredentialCache, VerifiedCredentialCache::getMissCount)
+                    .tag(MetricConstant.RESULT, "miss").register(registry);
+            Gauge.builder(MetricConstant.LOGIN_CREDENTIAL_CACHE + ".size", verifiedCredentialCache, VerifiedCredentialCache::size).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder userDirectoryMetrics(UserDirectory userDirectory) {
+        return registry -> {
+            bindCache(registry, "username", userDirectory.getUsernameCache());
+            bindCache(registry, "email", userDirectory.getEmailCache());
+            bindCache(registry, "credentials", userDirectory.getCredentialsCache());
+        };
+    }
+
+    @Bean
+    public MeterBinder userSearchIndexMetrics(UserSearchIndex userSearchIndex) {
+        return registry -> {
+            Gauge.builder(MetricConstant.USER_SEARCH_INDEX + ".size", userSearchIndex, UserSearchIndex::size).register(registry);
+            Gauge.builder(MetricConstant.USER_SEARCH_INDEX + ".bytes", userSearchIndex, index -> index.getStats().estimatedBytes())
+                    .baseUnit("bytes").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(DataSource dataSource) {
+        return registry -> {
+            ReadWriteRoutingDataSource routingDataSource = DataSourceUnwrapper.unwrap(dataSource, ReadWriteRoutingDataSource.class, ReadWriteRoutingDataSource.class);
+            if (routingDataSource != null) {
+                routingDataSource.bindTo(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingExecutorMetrics(ThreadPoolExecutor passwordHashingExecutor) {
+        return new ExecutorServiceMetrics(passwordHashingExecutor, "bcrypt", Tags.empty());
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, ExpiringLoadingCache<?, ?> cache) {
+        FunctionCounter.builder(MetricConstant.USER_CACHE + ".gets", cache, ExpiringLoadingCache::getHitCount)
+                .tags(MetricConstant.CACHE, name, MetricConstant.RESULT, "hit").register(registry);
+        FunctionCounter.builder(MetricConstant.USER_CACHE + ".gets", cache, ExpiringLoadingCache::getMissCount)
+                .tags(MetricConstant.CACHE, name, MetricConstant.RESULT, "miss").register(registry);
+        FunctionCounter.builder(MetricConstant.USER_CACHE + ".evictions", cache, ExpiringLoadingCache::getEvictionCount)
+                .tag(MetricConstant.CACHE, name).register(registry);
+        Gauge.builder(MetricConstant.USER_CACHE + ".hit.ratio", cache, ExpiringLoadingCache::getHitRatio)
+                .tag(MetricConstant.CACHE, name).register(registry);
+        Gauge.builder(MetricConstant.USER_CACHE + ".size", cache, ExpiringLoadingCache::size)
+                .tag(MetricConstant.CACHE, name).register(registry);
+        FunctionTimer.builder(MetricConstant.USER_CACHE + ".loads", cache,
+                        ExpiringLoadingCache::getMissCount, loaded -> loaded.getTotalLoadTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .tag(MetricConstant.CACHE, name).register(registry);
+    }
+}
@@ -0,0 +1,44 @@
+package com.supportportal.supportportal.configuration;
+
+import com.supportportal.supportportal.utility.BoundedBCryptPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class PasswordEncoderConfiguration {
+
+    // Dedicated pool for BCrypt, it caps the number of concurrent hashes. The request threads still wait for their hash
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(@Value("${bcrypt.pool-size:0}") int poolSize,
+                                                      @Value("${bcrypt.queue-capacity:100}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // The work factor is calibrated at startup to the target latency on the current hardware
+    @Bean
+    public BCryptPasswordEncoder bCryptPasswordEncoder(ThreadPoolExecutor passwordHashingExecutor,
+                                                       MeterRegistry meterRegistry,
+                                                       @Value("${bcrypt.target-latency:250}") long targetLatency,
+                                                       @Value("${bcrypt.min-strength:10}") int minStrength,
+                                                       @Value("${bcrypt.max-strength:16}") int maxStrength) {
+        int strength = BoundedBCryptPasswordEncoder.calibrate(targetLatency, minStrength, maxStrength);
+        return new BoundedBCryptPasswordEncoder(strength, passwordHashingExecutor, meterRegistry);
+    }
+}
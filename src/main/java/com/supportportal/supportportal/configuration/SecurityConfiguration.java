@@ -4,8 +4,13 @@ import com.supportportal.supportportal.constant.SecurityConstant;
 import com.supportportal.supportportal.filter.JWTAuthenticationEntryPoint;
 import com.supportportal.supportportal.filter.JwtAccessDeniedHandler;
 import com.supportportal.supportportal.filter.JwtAuthorizationFilter;
+import com.supportportal.supportportal.filter.LoginThrottleFilter;
+import com.supportportal.supportportal.filter.SecurityRequestMatchers;
+import com.supportportal.supportportal.utility.CachingDaoAuthenticationProvider;
+import com.supportportal.supportportal.utility.VerifiedCredentialCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,33 +21,49 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
 
     private JwtAuthorizationFilter jwtAuthorizationFilter;
+    private LoginThrottleFilter loginThrottleFilter;
     private JwtAccessDeniedHandler jwtAccessDeniedHandler;
     private JWTAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private UserDetailsService userDetailsService;
+    private UserDetailsPasswordService userDetailsPasswordService;
     private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private VerifiedCredentialCache verifiedCredentialCache;
 
 
     @Autowired
     public SecurityConfiguration(@Qualifier("jwtAuthorizationFilter") JwtAuthorizationFilter jwtAuthorizationFilter,
+                                 LoginThrottleFilter loginThrottleFilter,
                                  JwtAccessDeniedHandler jwtAccessDeniedHandler,
                                  JWTAuthenticationEntryPoint jwtAuthenticationEntryPoint,
                                  @Qualifier("userDetailsService") UserDetailsService userDetailsService,
-                                 BCryptPasswordEncoder bCryptPasswordEncoder) {
+                                 UserDetailsPasswordService userDetailsPasswordService,
+                                 BCryptPasswordEncoder bCryptPasswordEncoder,
+                                 VerifiedCredentialCache verifiedCredentialCache) {
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.verifiedCredentialCache = verifiedCredentialCache;
         this.jwtAccessDeniedHandler = jwtAccessDeniedHandler;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtAuthorizationFilter = jwtAuthorizationFilter;
+        this.loginThrottleFilter = loginThrottleFilter;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
     }
 
     /*
@@ -81,22 +102,47 @@ public class SecurityConfiguration {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
+                .cors(Customizer.withDefaults()) // answers CORS preflights before any other filter, see corsConfigurationSource
                 .sessionManagement(httpSecuritySessionManagementConfigurer ->
                         httpSecuritySessionManagementConfigurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorizationManagerRequestMatcherRegistry ->
-                        authorizationManagerRequestMatcherRegistry.requestMatchers(SecurityConstant.PUBLIC_URLS).permitAll()
+                        authorizationManagerRequestMatcherRegistry.requestMatchers(SecurityRequestMatchers.ADMIN).hasAuthority(SecurityConstant.ADMIN_AUTHORITY)
+                                .requestMatchers(SecurityRequestMatchers.AUTHENTICATED).authenticated()
+                                .requestMatchers(SecurityRequestMatchers.PUBLIC).permitAll() // shared with JwtAuthorizationFilter
                                 .anyRequest().authenticated())
                 .exceptionHandling((exceptionHandling) ->
                         exceptionHandling
                                 .accessDeniedHandler(jwtAccessDeniedHandler).authenticationEntryPoint(jwtAuthenticationEntryPoint)
                 )
                 .addFilterBefore(jwtAuthorizationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(loginThrottleFilter, BasicAuthenticationFilter.class) // rejects throttled logins before any hashing
                 .authenticationProvider(authenticationProvider())
                 .httpBasic(Customizer.withDefaults());
 
         return http.build();
     }
 
+    /**
+     * CORS policy of the browser clients. A preflight gets its answer from the CorsFilter without going further down the chain,
+     * and the browser reuses that answer for max-age seconds instead of sending a preflight before every request.
+     * Without allowed origins there is no policy: preflights still end at the CorsFilter, without any CORS header.
+     */
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource(@Value("${cors.allowed-origins:}") List<String> allowedOrigins,
+                                                           @Value("${cors.max-age:86400}") long maxAge) {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        if (!allowedOrigins.isEmpty()) {
+            CorsConfiguration configuration = new CorsConfiguration();
+            configuration.setAllowedOriginPatterns(allowedOrigins);
+            configuration.setAllowedMethods(List.of(SecurityConstant.CORS_ALLOWED_METHODS));
+            configuration.setAllowedHeaders(List.of(SecurityConstant.CORS_ALLOWED_HEADERS));
+            configuration.setExposedHeaders(List.of(SecurityConstant.CORS_EXPOSED_HEADERS));
+            configuration.setMaxAge(maxAge);
+            source.registerCorsConfiguration("/**", configuration);
+        }
+        return source;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
@@ -104,8 +150,10 @@ public class SecurityConfiguration {
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
+        // repeated HTTP Basic credentials are answered from the cache, without a lookup or a bcrypt comparison
+        DaoAuthenticationProvider authProvider = new CachingDaoAuthenticationProvider(userDetailsService, verifiedCredentialCache);
         authProvider.setPasswordEncoder(bCryptPasswordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService); // re-hashes passwords whose cost is below the calibrated one
         return authProvider;
     }
 }
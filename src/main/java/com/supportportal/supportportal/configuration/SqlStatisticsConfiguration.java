@@ -0,0 +1,30 @@
+package com.supportportal.supportportal.configuration;
+
+import com.supportportal.supportportal.utility.InstrumentedDataSource;
+import com.supportportal.supportportal.utility.SqlStatistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlStatisticsConfiguration {
+
+    // Static, so that post-processing the DataSource does not create this configuration early
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor(ObjectProvider<SqlStatistics> sqlStatistics, Environment environment) {
+        boolean enabled = environment.getProperty("sql.statistics.enabled", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, sqlStatistics::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.supportportal.supportportal.configuration;
+
+import com.supportportal.supportportal.service.impl.UserDirectory;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/*  Startup tuning for the prod profile, which turns on lazy initialization.
+ *  The beans on the authentication path are still created at startup: the BCrypt cost calibration
+ *  and the signing keys would otherwise be paid by the first authenticated request.
+ */
+@Configuration
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter authenticationPathExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(BCryptPasswordEncoder.class, JWTTokenProvider.class, UserDirectory.class);
+    }
+}
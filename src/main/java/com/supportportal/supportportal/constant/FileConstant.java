@@ -0,0 +1,15 @@
+package com.supportportal.supportportal.constant;
+
+public class FileConstant {
+
+    public static final String USER_IMAGE_PATH = "/user/image/";
+    public static final String JPG_EXTENSION = "jpg";
+    public static final String PNG_EXTENSION = "png";
+    public static final String GIF_EXTENSION = "gif";
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+    public static final String NOT_AN_IMAGE_FILE = "The file is not a JPEG, PNG or GIF image";
+    public static final String IMAGE_TOO_LARGE = "The image is larger than %d x %d pixels";
+    public static final String NO_USER_FOUND_BY_USERNAME = "No user found by username: ";
+    // Image names are content hashes, so an image never changes and may be cached for a year
+    public static final long IMAGE_MAX_AGE_SECONDS = 31_536_000;
+}
@@ -0,0 +1,45 @@
+package com.supportportal.supportportal.constant;
+
+public class MetricConstant {
+
+    // Meter names, exported by the Prometheus endpoint with "_" instead of "."
+    public static final String JWT_FILTER = "supportportal.jwt.filter";
+    public static final String JWT_VERIFICATION = "supportportal.jwt.verification";
+    public static final String JWT_CACHE = "supportportal.jwt.cache";
+    public static final String USER_LOAD = "supportportal.user.load";
+    public static final String USER_CACHE = "supportportal.user.cache";
+    public static final String USER_SEARCH_INDEX = "supportportal.user.search.index";
+    public static final String BCRYPT = "supportportal.bcrypt";
+    public static final String EXCEPTIONS = "supportportal.exceptions";
+    public static final String LOGIN_THROTTLED = "supportportal.login.throttled";
+    public static final String LOGIN_CREDENTIAL_CACHE = "supportportal.login.credential.cache";
+    public static final String SQL_STATEMENTS = "supportportal.sql.statements";
+    public static final String SQL_SLOW = "supportportal.sql.slow";
+    public static final String SQL_REQUEST_QUERIES = "supportportal.sql.request.queries";
+    public static final String SQL_REQUEST_TIME = "supportportal.sql.request.time";
+    public static final String SQL_REPEATED = "supportportal.sql.repeated";
+    public static final String DATASOURCE_READS = "supportportal.datasource.reads";
+    public static final String DATASOURCE_REPLICA_LAG = "supportportal.datasource.replica.lag";
+
+    // Tags, all of them with a small fixed set of values
+    public static final String OUTCOME = "outcome";
+    public static final String OPERATION = "operation";
+    public static final String RESULT = "result";
+    public static final String CACHE = "cache";
+    public static final String EXCEPTION = "exception";
+    public static final String STATUS = "status";
+    public static final String KEY = "key";
+    public static final String METHOD = "method";
+    public static final String URI = "uri"; // the matched handler pattern, never the raw request URI
+    public static final String POOL = "pool"; // primary or replica-<n>
+
+    public static final String OUTCOME_NO_TOKEN = "no_token";
+    public static final String OUTCOME_VALID = "valid";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_EXPIRED = "expired";
+    public static final String OUTCOME_FOUND = "found";
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String KEY_USERNAME = "username";
+    public static final String KEY_IP = "ip";
+    public static final String URI_UNKNOWN = "UNKNOWN";
+}
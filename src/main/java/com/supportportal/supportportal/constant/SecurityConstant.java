@@ -12,8 +12,31 @@ public class SecurityConstant {
     public static final String FORBIDDEN_MESSAGE = "You need to log in to access this page";
     public static final String ACCESS_DENIED_MESSAGE = "You do not have permission to access this page";
     public static final String OPTIONS_HTTP_METHOD = "OPTIONS";
+    public static final String SERVER_BUSY_MESSAGE = "The server is busy. Please try again later";
+    public static final String RETRY_AFTER_SECONDS = "1";
+    public static final String TOO_MANY_ATTEMPTS_MESSAGE = "Too many login attempts. Please try again later";
 
     // All the URLs that can be accessed without any security
 //   public static final String[] PUBLIC_URLS = {"/user/login", "/user/register", "/user/resetpassword/**", "/user/image/**"};
      public static final String[] PUBLIC_URLS = {"**"};  //for testing
+    // Bulk reads and imports of the user directory, matched before PUBLIC_URLS. UserResource is also mapped at the root, hence both forms
+    public static final String[] ADMIN_URLS = {"/user/list", "/user/export", "/user/search", "/user/search/stats", "/user/import",
+            "/list", "/export", "/search", "/search/stats", "/import"};
+    // Reads of a single user, matched before PUBLIC_URLS: the summary holds the email, roles and account flags
+    public static final String[] AUTHENTICATED_URLS = {"/user/find/**", "/find/**"};
+    // Lets a user read other users' summaries, everyone can read their own
+    public static final String USER_READ_AUTHORITY = "user:read";
+    // Only the administrators hold it, the other roles can read or update users but not create them
+    public static final String ADMIN_AUTHORITY = "user:create";
+    // Lets a user change other users' profiles, everyone can change their own
+    public static final String USER_UPDATE_AUTHORITY = "user:update";
+    // Health and metrics endpoints polled by the monitoring system
+    public static final String[] MONITORING_URLS = {"/actuator/health", "/actuator/prometheus"};
+    // Public keys of the RS256/ES256 signing modes, fetched by the nodes verifying tokens
+    public static final String JWKS_URL = "/.well-known/jwks.json";
+    public static final long JWKS_MAX_AGE_SECONDS = 300;
+    // What the allowed browser origins (cors.allowed-origins) may send and read
+    public static final String[] CORS_ALLOWED_METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE"};
+    public static final String[] CORS_ALLOWED_HEADERS = {"Authorization", "Content-Type", "Accept", "If-None-Match"};
+    public static final String[] CORS_EXPOSED_HEADERS = {JWT_TOKEN_HEADER, "ETag", "Retry-After"};
 }
@@ -0,0 +1,21 @@
+package com.supportportal.supportportal.constant;
+
+public class UserConstant {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 100;
+    public static final int EXPORT_FLUSH_INTERVAL = 1000; // rows written to the response between two flushes
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String EXPORT_FILE_NAME = "users.ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String USERNAME_ALREADY_EXISTS = "Username already exists";
+    public static final String EMAIL_ALREADY_EXISTS = "Email already exists";
+    public static final String MISSING_FIELD = "Missing field: %s";
+    public static final String DEFAULT_ROLE = "ROLE_USER";
+    public static final String DEFAULT_AUTHORITIES = "user:read";
+    public static final String ROLE_ABOVE_IMPORTER = "Cannot grant a role above your own: %s";
+    public static final String AUTHORITY_NOT_HELD = "Cannot grant authorities you do not hold: %s";
+    public static final int MAX_REPORTED_IMPORT_ERRORS = 1000;
+}
@@ -0,0 +1,5 @@
+package com.supportportal.supportportal.domain;
+
+// Where a stored profile image and its thumbnail are served from
+public record ProfileImage(String imageUrl, String thumbnailUrl) {
+}
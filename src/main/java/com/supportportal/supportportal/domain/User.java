@@ -1,15 +1,21 @@
 package com.supportportal.supportportal.domain;
 
+import com.supportportal.supportportal.enumeration.Authority;
 import jakarta.persistence.*;
 
 import java.io.Serializable;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_user_username", columnList = "username", unique = true),
+        @Index(name = "ux_user_email", columnList = "email", unique = true),
+        @Index(name = "ux_user_user_id", columnList = "userId", unique = true)
+})
 public class User implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // auto_increment, so batched JDBC inserts need no id
     @Column(nullable = false, updatable = false)
     private Long id; // PK
     private String userId;
@@ -26,12 +32,17 @@ public class User implements Serializable {
     private Date lastLoginDateDisplay;
     private Date joinDate;
 
-    private String[] roles; // ROLE_USER{ read, edit}, ROLE_ADMIN { delete, }
-    private String[] authorities; // -> delete, update, create permission
+    // Bitmasks over the Authority catalogue instead of serialized String[] blobs
+    private long roleMask; // ROLE_USER{ read, edit}, ROLE_ADMIN { delete, }
+    private long authorityMask; // -> delete, update, create permission
 
     private boolean isActive;
     private boolean isNotLocked;
 
+    // Bumped by Hibernate on every update, and by hand in the JPQL and JDBC updates (UserRepository, LastLoginRecorder)
+    @Version
+    private long version;
+
     public User(){}
 
     public User(String firstName, Long id, String userId, String lastName, String email, String profileImageUrl, String username, String password, Date lastLoginDate, Date lastLoginDateDisplay, Date joinDate, String[] roles, String[] authorities, boolean isActive, boolean isNotLocked) {
@@ -46,8 +57,8 @@ public class User implements Serializable {
         this.lastLoginDate = lastLoginDate;
         this.lastLoginDateDisplay = lastLoginDateDisplay;
         this.joinDate = joinDate;
-        this.roles = roles;
-        this.authorities = authorities;
+        this.roleMask = Authority.toMask(roles);
+        this.authorityMask = Authority.toMask(authorities);
         this.isActive = isActive;
         this.isNotLocked = isNotLocked;
     }
@@ -141,19 +152,35 @@ public class User implements Serializable {
     }
 
     public String[] getRoles() {
-        return roles;
+        return Authority.toNames(roleMask);
     }
 
     public void setRoles(String[] roles) {
-        this.roles = roles;
+        this.roleMask = Authority.toMask(roles);
     }
 
     public String[] getAuthorities() {
-        return authorities;
+        return Authority.toNames(authorityMask);
     }
 
     public void setAuthorities(String[] authorities) {
-        this.authorities = authorities;
+        this.authorityMask = Authority.toMask(authorities);
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    public void setRoleMask(long roleMask) {
+        this.roleMask = roleMask;
+    }
+
+    public long getAuthorityMask() {
+        return authorityMask;
+    }
+
+    public void setAuthorityMask(long authorityMask) {
+        this.authorityMask = authorityMask;
     }
 
     public boolean isActive() {
@@ -164,6 +191,10 @@ public class User implements Serializable {
         isActive = active;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public boolean isNotLocked() {
         return isNotLocked;
     }
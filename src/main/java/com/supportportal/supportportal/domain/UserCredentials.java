@@ -0,0 +1,8 @@
+package com.supportportal.supportportal.domain;
+
+/*  Lean projection of User used on the authentication path:
+ *  only the columns needed to build a UserPrincipal are selected
+ */
+public record UserCredentials(Long id, String username, String password, long authorityMask,
+                              boolean active, boolean notLocked) {
+}
@@ -0,0 +1,7 @@
+package com.supportportal.supportportal.domain;
+
+/*  A row of a bulk import that was not inserted.
+ *  error is the simple name of the exception the row would have raised through saveUser, e.g. UsernameExistException
+ */
+public record UserImportError(long line, String username, String error, String message) {
+}
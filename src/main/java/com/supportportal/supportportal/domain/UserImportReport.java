@@ -0,0 +1,8 @@
+package com.supportportal.supportportal.domain;
+
+import java.util.List;
+
+/*  Outcome of a bulk import. Only the first errors are listed, failed always counts all of them
+ */
+public record UserImportReport(int imported, int failed, List<UserImportError> errors, long durationMillis) {
+}
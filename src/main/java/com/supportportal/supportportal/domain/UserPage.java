@@ -0,0 +1,9 @@
+package com.supportportal.supportportal.domain;
+
+import java.util.List;
+
+/*  One page of the keyset-paginated user listing.
+ *  nextAfter is the id to pass as "after" for the next page, null on the last page
+ */
+public record UserPage(List<UserSummary> users, Long nextAfter) {
+}
@@ -1,36 +1,62 @@
 package com.supportportal.supportportal.domain;
 
+import com.supportportal.supportportal.utility.AuthorityRegistry;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static java.util.Arrays.stream;
 
 public class UserPrincipal implements UserDetails {
 
-    private User user;
+    private String username;
+    private String password;
+    private long authorityMask;
+    private List<GrantedAuthority> authorities; // shared, unmodifiable list from the AuthorityRegistry
+    private boolean active;
+    private boolean notLocked;
 
     public UserPrincipal(User user) {
-        this.user = user;
+        this(user.getUsername(), user.getPassword(), user.getAuthorityMask(), user.isActive(), user.isNotLocked());
+    }
+
+    public UserPrincipal(UserCredentials userCredentials) {
+        this(userCredentials.username(), userCredentials.password(), userCredentials.authorityMask(),
+                userCredentials.active(), userCredentials.notLocked());
+    }
+
+    private UserPrincipal(String username, String password, long authorityMask, boolean active, boolean notLocked) {
+        this.username = username;
+        this.password = password;
+        this.authorityMask = authorityMask;
+        this.authorities = AuthorityRegistry.getAuthorities(authorityMask);
+        this.active = active;
+        this.notLocked = notLocked;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return stream(this.user.getAuthorities()).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return this.authorities;
+    }
+
+    // Copy of this principal holding a new password hash
+    public UserPrincipal withPassword(String password) {
+        return new UserPrincipal(this.username, password, this.authorityMask, this.active, this.notLocked);
+    }
+
+    // The authorities encoded as a bitmask over the Authority catalogue
+    public long getAuthorityMask() {
+        return this.authorityMask;
     }
 
     @Override
     public String getPassword() {
-        return this.user.getPassword();
+        return this.password;
     }
 
     @Override
     public String getUsername() {
-        return this.user.getUsername();
+        return this.username;
     }
 
     @Override
@@ -40,7 +66,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return this.user.isNotLocked();
+        return this.notLocked;
     }
 
     @Override
@@ -50,6 +76,6 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return this.user.isActive();
+        return this.active;
     }
 }
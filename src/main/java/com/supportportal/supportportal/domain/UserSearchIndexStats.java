@@ -0,0 +1,16 @@
+package com.supportportal.supportportal.domain;
+
+/*  Memory footprint of the user search index.
+ *  The byte counts are estimates for a 64-bit JVM with compressed oops and compact strings,
+ *  they are meant to size the heap, not to replace a heap dump
+ */
+public record UserSearchIndexStats(int users,
+                                   int slots,
+                                   int trigrams,
+                                   long postings,
+                                   long postingBytes,
+                                   long documentBytes,
+                                   long lookupBytes,
+                                   long estimatedBytes,
+                                   long lastBuildMillis) {
+}
@@ -0,0 +1,8 @@
+package com.supportportal.supportportal.domain;
+
+/*  A user found by the type-ahead search, answered from the in-memory index without touching the database.
+ *  prefixMatch is true when one of the fields starts with the query, these results are listed first
+ */
+public record UserSearchResult(Long id, String username, String email, String firstName, String lastName,
+                               boolean prefixMatch) {
+}
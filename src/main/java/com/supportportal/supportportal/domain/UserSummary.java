@@ -0,0 +1,21 @@
+package com.supportportal.supportportal.domain;
+
+import com.supportportal.supportportal.enumeration.Authority;
+
+import java.util.Date;
+
+/*  What the admin console gets for a user: every column except the password hash.
+ *  Selected with a constructor expression, so listings never load or manage User entities
+ */
+public record UserSummary(Long id, String userId, String firstName, String lastName, String email, String username,
+                          String profileImageUrl, Date lastLoginDateDisplay, Date joinDate,
+                          String[] roles, String[] authorities, boolean active, boolean notLocked, long version) {
+
+    // Used by the JPQL constructor expressions, the masks are decoded through the Authority catalogue
+    public UserSummary(Long id, String userId, String firstName, String lastName, String email, String username,
+                       String profileImageUrl, Date lastLoginDateDisplay, Date joinDate,
+                       long roleMask, long authorityMask, boolean active, boolean notLocked, long version) {
+        this(id, userId, firstName, lastName, email, username, profileImageUrl, lastLoginDateDisplay, joinDate,
+                Authority.toNames(roleMask), Authority.toNames(authorityMask), active, notLocked, version);
+    }
+}
@@ -0,0 +1,6 @@
+package com.supportportal.supportportal.domain;
+
+/*  The id and version of a user, all a conditional GET needs to answer 304 Not Modified
+ */
+public record UserVersion(Long id, long version) {
+}
@@ -0,0 +1,38 @@
+package com.supportportal.supportportal.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+/*  Immutable result of a single JWT verification:
+ *  the signature has been checked once and the claims the filter needs are already decoded
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final List<GrantedAuthority> authorities;
+    private final Date expiresAt;
+
+    public VerifiedToken(String subject, List<GrantedAuthority> authorities, Date expiresAt) {
+        this.subject = subject;
+        this.authorities = List.copyOf(authorities);
+        this.expiresAt = expiresAt == null ? null : new Date(expiresAt.getTime());
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt == null ? null : new Date(expiresAt.getTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.getTime() < System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,90 @@
+package com.supportportal.supportportal.enumeration;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*  Fixed catalogue of roles and permissions.
+ *  A user's roles and authorities are stored as a bitmask over this catalogue and carried in the JWT as a single number.
+ *  The bit of an entry is persisted: never reuse or change a bit, only append new entries.
+ */
+public enum Authority {
+
+    USER_READ(0, "user:read"),
+    USER_CREATE(1, "user:create"),
+    USER_UPDATE(2, "user:update"),
+    USER_DELETE(3, "user:delete"),
+
+    ROLE_USER(16, "ROLE_USER"),
+    ROLE_HR(17, "ROLE_HR"),
+    ROLE_MANAGER(18, "ROLE_MANAGER"),
+    ROLE_ADMIN(19, "ROLE_ADMIN"),
+    ROLE_SUPER_ADMIN(20, "ROLE_SUPER_ADMIN");
+
+    private static final Authority[] BY_BIT = new Authority[Long.SIZE];
+    private static final Map<String, Authority> BY_NAME = new HashMap<>();
+
+    static {
+        for (Authority authority : values()) {
+            if (BY_BIT[authority.bit] != null) {
+                throw new ExceptionInInitializerError("Bit " + authority.bit + " is used twice");
+            }
+            BY_BIT[authority.bit] = authority;
+            BY_NAME.put(authority.name, authority);
+        }
+    }
+
+    private final int bit;
+    private final String name;
+
+    Authority(int bit, String name) {
+        this.bit = bit;
+        this.name = name;
+    }
+
+    public long getMask() {
+        return 1L << bit;
+    }
+
+    // The name of the granted authority, e.g. user:read or ROLE_ADMIN
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Encodes authority names as a bitmask
+     * @param names the names of the authorities
+     * @return the bitmask
+     * @throws IllegalArgumentException if a name is not part of the catalogue
+     */
+    public static long toMask(String... names) {
+        long mask = 0;
+        if (names != null) {
+            for (String name : names) {
+                Authority authority = BY_NAME.get(name);
+                if (authority == null) {
+                    throw new IllegalArgumentException("Unknown authority: " + name);
+                }
+                mask |= authority.getMask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Decodes a bitmask, bits that are not part of the catalogue are ignored
+     * @param mask the bitmask
+     * @return the names of the authorities, in bit order
+     */
+    public static String[] toNames(long mask) {
+        String[] names = new String[Long.bitCount(mask)];
+        int count = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            Authority authority = BY_BIT[Long.numberOfTrailingZeros(remaining)];
+            if (authority != null) {
+                names[count++] = authority.name;
+            }
+        }
+        return count == names.length ? names : Arrays.copyOf(names, count);
+    }
+}
@@ -0,0 +1,7 @@
+package com.supportportal.supportportal.enumeration;
+
+// Formats accepted by the bulk user import, one user per line
+public enum ImportFormat {
+    CSV,
+    NDJSON
+}
@@ -1,14 +1,21 @@
 package com.supportportal.supportportal.exception;
 
 import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.supportportal.supportportal.constant.MetricConstant;
 import com.supportportal.supportportal.domain.HttpResponse;
 import com.supportportal.supportportal.exception.domain.EmailExistException;
 import com.supportportal.supportportal.exception.domain.EmailNotFoundException;
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import com.supportportal.supportportal.exception.domain.PasswordHashingRejectedException;
 import com.supportportal.supportportal.exception.domain.UserNotFoundException;
 import com.supportportal.supportportal.exception.domain.UsernameExistException;
+import com.supportportal.supportportal.utility.ErrorResponseWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.NoResultException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,71 +28,91 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Handles all the exceptions
 @RestControllerAdvice
 public class ExceptionHandling {
 
     private final Logger LOGGER = LoggerFactory.getLogger(getClass());
-    private static final String ACCOUNT_LOCKED = "Your account has been locked. Please contact administration";
+    private final Map<Class<? extends Exception>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+    private MeterRegistry meterRegistry;
+    // Fixed messages are upper-cased once here, only exception messages are upper-cased per response
+    private static final String ACCOUNT_LOCKED = "Your account has been locked. Please contact administration".toUpperCase();
     private static final String METHOD_IS_NOT_ALLOWED = "This request method is not allowed on this endpoint. Please send a '%s' request";
-    private static final String INTERNAL_SERVER_ERROR_MSG = "An error occurred while processing the request";
-    private static final String INCORRECT_CREDENTIALS = "Username / password incorrect. Please try again";
-    private static final String ACCOUNT_DISABLED = "Your account has been disabled. If this is an error, please contact administration";
-    private static final String ERROR_PROCESSING_FILE = "Error occurred while processing file";
-    private static final String NOT_ENOUGH_PERMISSION = "You do not have enough permission";
+    private static final String INTERNAL_SERVER_ERROR_MSG = "An error occurred while processing the request".toUpperCase();
+    private static final String INCORRECT_CREDENTIALS = "Username / password incorrect. Please try again".toUpperCase();
+    private static final String ACCOUNT_DISABLED = "Your account has been disabled. If this is an error, please contact administration".toUpperCase();
+    private static final String ERROR_PROCESSING_FILE = "Error occurred while processing file".toUpperCase();
+    private static final String NOT_ENOUGH_PERMISSION = "You do not have enough permission".toUpperCase();
     public static final String ERROR_PATH = "/error";
 
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(DisabledException.class)
     public ResponseEntity<HttpResponse> accountDisabledException(){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, ACCOUNT_DISABLED);
+        return createHttpResponse(DisabledException.class, HttpStatus.BAD_REQUEST, ACCOUNT_DISABLED);
     }
 
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<HttpResponse> badCredentialsException(){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, INCORRECT_CREDENTIALS);
+        return createHttpResponse(BadCredentialsException.class, HttpStatus.BAD_REQUEST, INCORRECT_CREDENTIALS);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<HttpResponse> accessDeniedException(){
-        return createHttpResponse(HttpStatus.FORBIDDEN, NOT_ENOUGH_PERMISSION);
+        return createHttpResponse(AccessDeniedException.class, HttpStatus.FORBIDDEN, NOT_ENOUGH_PERMISSION);
     }
 
     @ExceptionHandler(LockedException.class)
     public ResponseEntity<HttpResponse> lockedException(){
-        return createHttpResponse(HttpStatus.UNAUTHORIZED, ACCOUNT_LOCKED);
+        return createHttpResponse(LockedException.class, HttpStatus.UNAUTHORIZED, ACCOUNT_LOCKED);
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<HttpResponse> passwordHashingRejectedException(PasswordHashingRejectedException exception){
+        return createHttpResponse(PasswordHashingRejectedException.class, HttpStatus.SERVICE_UNAVAILABLE, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(TokenExpiredException.class)
     public ResponseEntity<HttpResponse> tokenExpiredException(TokenExpiredException exception){
-        return createHttpResponse(HttpStatus.UNAUTHORIZED, exception.getMessage());
+        return createHttpResponse(TokenExpiredException.class, HttpStatus.UNAUTHORIZED, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(EmailExistException.class)
     public ResponseEntity<HttpResponse> emailExistException(EmailExistException exception){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
+        return createHttpResponse(EmailExistException.class, HttpStatus.BAD_REQUEST, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(UsernameExistException.class)
     public ResponseEntity<HttpResponse> usernameExistException(UsernameExistException exception){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
+        return createHttpResponse(UsernameExistException.class, HttpStatus.BAD_REQUEST, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(EmailNotFoundException.class)
     public ResponseEntity<HttpResponse> emailNotFoundException(EmailNotFoundException exception){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
+        return createHttpResponse(EmailNotFoundException.class, HttpStatus.BAD_REQUEST, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<HttpResponse> userNotFoundException(UserNotFoundException exception){
-        return createHttpResponse(HttpStatus.BAD_REQUEST, exception.getMessage());
+        return createHttpResponse(UserNotFoundException.class, HttpStatus.BAD_REQUEST, upperCase(exception.getMessage()));
+    }
+
+    @ExceptionHandler(NotAnImageFileException.class)
+    public ResponseEntity<HttpResponse> notAnImageFileException(NotAnImageFileException exception){
+        return createHttpResponse(NotAnImageFileException.class, HttpStatus.BAD_REQUEST, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     public ResponseEntity<HttpResponse> methodNotSupportedException(HttpRequestMethodNotSupportedException exception){
         HttpMethod supportedMethod = Objects.requireNonNull(exception.getSupportedHttpMethods()).iterator().next();
-        return createHttpResponse(HttpStatus.METHOD_NOT_ALLOWED, String.format(METHOD_IS_NOT_ALLOWED, supportedMethod));
+        return createHttpResponse(HttpRequestMethodNotSupportedException.class, HttpStatus.METHOD_NOT_ALLOWED, upperCase(String.format(METHOD_IS_NOT_ALLOWED, supportedMethod)));
     }
 
 //    @ExceptionHandler(NoResourceFoundException.class)
@@ -96,26 +123,47 @@ public class ExceptionHandling {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<HttpResponse> internalServerErrorException(Exception exception){
         LOGGER.error(exception.getMessage());
-        return createHttpResponse(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR_MSG);
+        return createHttpResponse(Exception.class, HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR_MSG);
     }
 
     @ExceptionHandler(NoResultException.class)
     public ResponseEntity<HttpResponse> notFoundException(NoResultException exception){
         LOGGER.error(exception.getMessage());
-        return createHttpResponse(HttpStatus.NOT_FOUND, exception.getMessage());
+        return createHttpResponse(NoResultException.class, HttpStatus.NOT_FOUND, upperCase(exception.getMessage()));
     }
 
     @ExceptionHandler(IOException.class)
     public ResponseEntity<HttpResponse> iOException(IOException exception){
         LOGGER.error(exception.getMessage());
-        return createHttpResponse(HttpStatus.INTERNAL_SERVER_ERROR, ERROR_PROCESSING_FILE);
+        return createHttpResponse(IOException.class, HttpStatus.INTERNAL_SERVER_ERROR, ERROR_PROCESSING_FILE);
     }
 
-    private ResponseEntity<HttpResponse>  createHttpResponse (HttpStatus httpStatus, String message){
-        HttpResponse httpResponse = new HttpResponse(httpStatus.value(), httpStatus, httpStatus.getReasonPhrase().toUpperCase(), message.toUpperCase());
+    private ResponseEntity<HttpResponse>  createHttpResponse (Class<? extends Exception> exceptionType, HttpStatus httpStatus, String message){
+        countException(exceptionType, httpStatus);
+        HttpResponse httpResponse = new HttpResponse(httpStatus.value(), httpStatus, ErrorResponseWriter.reason(httpStatus), message);
         return new ResponseEntity<>(httpResponse, httpStatus);
     }
 
+    private static String upperCase(String message){
+        return message == null ? null : message.toUpperCase();
+    }
+
+    // One counter per handled exception type, looked up without allocating after the first occurrence
+    private void countException(Class<? extends Exception> exceptionType, HttpStatus httpStatus){
+        if(meterRegistry == null){
+            return;
+        }
+        Counter counter = exceptionCounters.get(exceptionType);
+        if(counter == null){
+            counter = exceptionCounters.computeIfAbsent(exceptionType, type -> Counter.builder(MetricConstant.EXCEPTIONS)
+                    .description("Exceptions mapped to a response by ExceptionHandling")
+                    .tag(MetricConstant.EXCEPTION, type.getSimpleName())
+                    .tag(MetricConstant.STATUS, String.valueOf(httpStatus.value()))
+                    .register(meterRegistry));
+        }
+        counter.increment();
+    }
+
 //    @RequestMapping(ERROR_PATH)
 //    public ResponseEntity<HttpResponse> notFound404(){
 //        return createHttpResponse(HttpStatus.NOT_FOUND, "There is no mapping for this URL");
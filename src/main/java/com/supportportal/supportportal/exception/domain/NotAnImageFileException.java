@@ -0,0 +1,8 @@
+package com.supportportal.supportportal.exception.domain;
+
+public class NotAnImageFileException extends Exception{
+
+    public NotAnImageFileException(String message) {
+        super(message);
+    }
+}
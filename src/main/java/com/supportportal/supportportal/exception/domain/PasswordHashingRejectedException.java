@@ -0,0 +1,11 @@
+package com.supportportal.supportportal.exception.domain;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// Thrown when the password hashing executor is saturated, so the request can be answered right away instead of queuing
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,34 +1,44 @@
 package com.supportportal.supportportal.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.supportportal.supportportal.constant.SecurityConstant;
-import com.supportportal.supportportal.domain.HttpResponse;
+import com.supportportal.supportportal.exception.domain.PasswordHashingRejectedException;
+import com.supportportal.supportportal.utility.ErrorResponseWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.OutputStream;
 
 @Component
 public class JWTAuthenticationEntryPoint extends Http403ForbiddenEntryPoint {
 
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Autowired
+    public JWTAuthenticationEntryPoint(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     // Gets triggered when authentication failed - FORBIDDEN entry point
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException {
 
-        HttpResponse httpResponse = new HttpResponse(HttpStatus.FORBIDDEN.value(), HttpStatus.FORBIDDEN, HttpStatus.FORBIDDEN.getReasonPhrase().toUpperCase(), SecurityConstant.FORBIDDEN_MESSAGE);
+        if(exception instanceof PasswordHashingRejectedException){
+            serverBusy(response);
+            return;
+        }
 
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpStatus.FORBIDDEN.value());
+        errorResponseWriter.write(response, HttpStatus.FORBIDDEN, SecurityConstant.FORBIDDEN_MESSAGE);
+    }
 
-        OutputStream outputStream = response.getOutputStream();
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(outputStream, httpResponse);
-        outputStream.flush();
+    // The password hashing executor is saturated: answer right away and ask the client to retry
+    private void serverBusy(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, SecurityConstant.RETRY_AFTER_SECONDS);
+        errorResponseWriter.write(response, HttpStatus.SERVICE_UNAVAILABLE, SecurityConstant.SERVER_BUSY_MESSAGE);
     }
 }
@@ -1,34 +1,31 @@
 package com.supportportal.supportportal.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.supportportal.supportportal.constant.SecurityConstant;
-import com.supportportal.supportportal.domain.HttpResponse;
+import com.supportportal.supportportal.utility.ErrorResponseWriter;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.OutputStream;
 
 @Component
 public class JwtAccessDeniedHandler implements AccessDeniedHandler {
 
+    private ErrorResponseWriter errorResponseWriter;
+
+    @Autowired
+    public JwtAccessDeniedHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     // If the user tries to access a resource, and he doesn't have enough permission to access it -> send UNAUTHORIZED
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException exception) throws IOException, ServletException {
-        HttpResponse httpResponse = new HttpResponse(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED, HttpStatus.UNAUTHORIZED.getReasonPhrase().toUpperCase(), SecurityConstant.ACCESS_DENIED_MESSAGE);
-
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-
-        OutputStream outputStream = response.getOutputStream();
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(outputStream, httpResponse);
-        outputStream.flush();
+        errorResponseWriter.write(response, HttpStatus.UNAUTHORIZED, SecurityConstant.ACCESS_DENIED_MESSAGE);
     }
 }
@@ -1,60 +1,102 @@
 package com.supportportal.supportportal.filter;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.supportportal.supportportal.constant.MetricConstant;
 import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.domain.VerifiedToken;
 import com.supportportal.supportportal.utility.JWTTokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/*  Authenticates the requests that carry a bearer token.
+ *  Requests without an Authorization header that the security chain lets through anyway skip the filter,
+ *  decided by the chain's own matchers (SecurityRequestMatchers). A token presented on a public path is still verified.
+ *  CORS preflights never get here, the CorsFilter of the security chain answers them first.
+ */
 @Component
 @Qualifier("jwtAuthorizationFilter")
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
     private JWTTokenProvider jwtTokenProvider;
+    // one timer per outcome, registered up front so that recording does not allocate
+    private Timer noTokenTimer;
+    private Timer validTimer;
+    private Timer invalidTimer;
+    private Timer expiredTimer;
 
-    public JwtAuthorizationFilter(JWTTokenProvider jwtTokenProvider) {
+    public JwtAuthorizationFilter(JWTTokenProvider jwtTokenProvider, MeterRegistry meterRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.noTokenTimer = filterTimer(meterRegistry, MetricConstant.OUTCOME_NO_TOKEN);
+        this.validTimer = filterTimer(meterRegistry, MetricConstant.OUTCOME_VALID);
+        this.invalidTimer = filterTimer(meterRegistry, MetricConstant.OUTCOME_INVALID);
+        this.expiredTimer = filterTimer(meterRegistry, MetricConstant.OUTCOME_EXPIRED);
+    }
+
+    // Other OPTIONS requests carry no token either, Spring MVC answers them with the allowed methods
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            return false;
+        }
+        if (request.getMethod().equalsIgnoreCase(SecurityConstant.OPTIONS_HTTP_METHOD)) {
+            return true;
+        }
+        return SecurityRequestMatchers.PERMITTED_WITHOUT_TOKEN.matches(request);
     }
 
     // This method is going to fire every time a request comes in, and that's only going to happen once
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
-        // If the request method is OPTIONS, we don't do anything
-        // OPTIONS is sent before every request, and it's sent to gather information about the server
-        if(request.getMethod().equalsIgnoreCase(SecurityConstant.OPTIONS_HTTP_METHOD)){
-            response.setStatus(HttpStatus.OK.value());
+        long start = System.nanoTime();
+        String authorizationHeader =  request.getHeader(HttpHeaders.AUTHORIZATION);
+        if(authorizationHeader == null || !authorizationHeader.startsWith(SecurityConstant.TOKEN_PREFIX)){
+            noTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            filterChain.doFilter(request, response);
+            return;
         }
-        else{
-            String authorizationHeader =  request.getHeader(HttpHeaders.AUTHORIZATION);
-            if(authorizationHeader == null || !authorizationHeader.startsWith(SecurityConstant.TOKEN_PREFIX)){
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            String token = authorizationHeader.substring(SecurityConstant.TOKEN_PREFIX.length()); // remove the "Bearer " in front of the token
-            String username = jwtTokenProvider.getSubject(token);
-
-            if(jwtTokenProvider.isTokenValid(username, token) &&  SecurityContextHolder.getContext().getAuthentication() == null){
-                List<GrantedAuthority> authorities = jwtTokenProvider.getAuthorities(token);
-                Authentication authentication = jwtTokenProvider.getAuthentication(username, authorities, request);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            } else{
-                SecurityContextHolder.clearContext();
-            }
+
+        String token = authorizationHeader.substring(SecurityConstant.TOKEN_PREFIX.length()); // remove the "Bearer " in front of the token
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtTokenProvider.verifyToken(token); // the signature is checked only once per request
+        } catch (TokenExpiredException exception) {
+            expiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        } catch (JWTVerificationException exception) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        }
+
+        if(jwtTokenProvider.isTokenValid(verifiedToken) &&  SecurityContextHolder.getContext().getAuthentication() == null){
+            Authentication authentication = jwtTokenProvider.getAuthentication(verifiedToken.getSubject(), verifiedToken.getAuthorities(), request);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } else{
+            SecurityContextHolder.clearContext();
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         filterChain.doFilter(request, response);
     }
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(MetricConstant.JWT_FILTER)
+                .description("Time spent in the JWT authorization filter, excluding the rest of the chain")
+                .tag(MetricConstant.OUTCOME, outcome)
+                .register(meterRegistry);
+    }
 }
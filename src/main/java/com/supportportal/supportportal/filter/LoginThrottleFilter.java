@@ -0,0 +1,128 @@
+package com.supportportal.supportportal.filter;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.utility.ErrorResponseWriter;
+import com.supportportal.supportportal.utility.TokenBucketTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/*  Throttles HTTP Basic logins before BasicAuthenticationFilter, so a throttled attempt costs no bcrypt hash and no query.
+ *  Every failed login takes a token from the bucket of its username and from the bucket of its client IP,
+ *  a request whose username or IP has no token left is answered with 429 and a Retry-After header.
+ */
+@Component
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private boolean enabled;
+    private TokenBucketTable usernameBuckets;
+    private TokenBucketTable ipBuckets;
+    private ErrorResponseWriter errorResponseWriter;
+    private Counter usernameThrottledCounter;
+    private Counter ipThrottledCounter;
+
+    @Autowired
+    public LoginThrottleFilter(@Value("${login.throttle.enabled:true}") boolean enabled,
+                               @Value("${login.throttle.cells:262144}") int cells,
+                               @Value("${login.throttle.username.attempts-per-minute:5}") int usernameAttemptsPerMinute,
+                               @Value("${login.throttle.username.burst:5}") int usernameBurst,
+                               @Value("${login.throttle.ip.attempts-per-minute:30}") int ipAttemptsPerMinute,
+                               @Value("${login.throttle.ip.burst:30}") int ipBurst,
+                               ErrorResponseWriter errorResponseWriter,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.usernameBuckets = new TokenBucketTable(cells, usernameAttemptsPerMinute, usernameBurst);
+        this.ipBuckets = new TokenBucketTable(cells, ipAttemptsPerMinute, ipBurst);
+        this.errorResponseWriter = errorResponseWriter;
+        this.usernameThrottledCounter = throttledCounter(meterRegistry, MetricConstant.KEY_USERNAME);
+        this.ipThrottledCounter = throttledCounter(meterRegistry, MetricConstant.KEY_IP);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String authorizationHeader = enabled ? request.getHeader(HttpHeaders.AUTHORIZATION) : null;
+        if (authorizationHeader == null || !authorizationHeader.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = ipBuckets.getWaitNanos(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            ipThrottledCounter.increment();
+            tooManyAttempts(response, waitNanos);
+            return;
+        }
+        String username = extractUsername(authorizationHeader);
+        if (username != null) {
+            waitNanos = usernameBuckets.getWaitNanos(usernameKey(username));
+            if (waitNanos > 0) {
+                usernameThrottledCounter.increment();
+                tooManyAttempts(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Published by the ProviderManager when DaoAuthenticationProvider rejects a password or an unknown username
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        Authentication authentication = event.getAuthentication();
+        if (authentication.getName() != null) {
+            usernameBuckets.consume(usernameKey(authentication.getName()));
+        }
+        if (authentication.getDetails() instanceof WebAuthenticationDetails details && details.getRemoteAddress() != null) {
+            ipBuckets.consume(details.getRemoteAddress());
+        }
+    }
+
+    private void tooManyAttempts(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        errorResponseWriter.write(response, HttpStatus.TOO_MANY_REQUESTS, SecurityConstant.TOO_MANY_ATTEMPTS_MESSAGE);
+    }
+
+    // Usernames are matched case-insensitively by the database, so "Admin" and "admin" share a bucket
+    private static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    // Same decoding as BasicAuthenticationConverter, a malformed header is left for BasicAuthenticationFilter to reject
+    private static String extractUsername(String authorizationHeader) {
+        try {
+            byte[] decoded = Base64.getDecoder().decode(authorizationHeader.substring(BASIC_PREFIX.length()).trim());
+            String credentials = new String(decoded, StandardCharsets.UTF_8);
+            int separator = credentials.indexOf(':');
+            return separator < 0 ? null : credentials.substring(0, separator);
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder(MetricConstant.LOGIN_THROTTLED)
+                .description("Login attempts rejected with 429 before authentication")
+                .tag(MetricConstant.KEY, key)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.supportportal.supportportal.filter;
+
+import com.supportportal.supportportal.constant.SecurityConstant;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*  The request matchers of the security chain, built once from the URLs of SecurityConstant.
+ *  JwtAuthorizationFilter asks the same matchers which requests the chain lets through without a token,
+ *  so the two cannot disagree on what is public. A pattern is completed the way Spring MVC completes
+ *  its mappings: "**" becomes "/**" and matches every path, not only the first segment.
+ */
+public final class SecurityRequestMatchers {
+
+    private static final PathPatternRequestMatcher.Builder BUILDER = PathPatternRequestMatcher.withDefaults();
+
+    public static final RequestMatcher ADMIN = matcher(SecurityConstant.ADMIN_URLS);
+    public static final RequestMatcher AUTHENTICATED = matcher(SecurityConstant.AUTHENTICATED_URLS);
+    public static final RequestMatcher PUBLIC = matcher(SecurityConstant.PUBLIC_URLS, SecurityConstant.MONITORING_URLS,
+            new String[]{SecurityConstant.JWKS_URL});
+    // The chain checks ADMIN and AUTHENTICATED first, a request they match is not public even if PUBLIC matches it too
+    public static final RequestMatcher PERMITTED_WITHOUT_TOKEN =
+            new AndRequestMatcher(new NegatedRequestMatcher(new OrRequestMatcher(ADMIN, AUTHENTICATED)), PUBLIC);
+
+    private SecurityRequestMatchers() {}
+
+    private static RequestMatcher matcher(String[]... urlGroups) {
+        List<RequestMatcher> matchers = new ArrayList<>();
+        for (String[] urls : urlGroups) {
+            for (String url : urls) {
+                matchers.add(BUILDER.matcher(PathPatternParser.defaultInstance.initFullPathPattern(url)));
+            }
+        }
+        return new OrRequestMatcher(matchers);
+    }
+}
@@ -0,0 +1,48 @@
+package com.supportportal.supportportal.filter;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.supportportal.supportportal.utility.SqlStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/*  Counts the statements of each request, including the user lookups made by the security filter chain that runs after it.
+ *  A streamed response (the user export) runs its queries on another thread, they are only counted in the statement meters.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private SqlStatistics sqlStatistics;
+
+    @Autowired
+    public SqlStatisticsFilter(SqlStatistics sqlStatistics) {
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !sqlStatistics.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlStatistics.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlStatistics.end(request.getMethod(), pattern == null ? MetricConstant.URI_UNKNOWN : pattern.toString());
+        }
+    }
+}
@@ -1,11 +1,61 @@
 package com.supportportal.supportportal.repository;
 
 import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserCredentials;
+import com.supportportal.supportportal.domain.UserSummary;
+import com.supportportal.supportportal.domain.UserVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findUserByUsername(String username);
     User findUserByEmail(String email);
+
+    // Authentication only needs these columns, resolved through the unique index on username
+    @Query("select new com.supportportal.supportportal.domain.UserCredentials(u.id, u.username, u.password, u.authorityMask, u.isActive, u.isNotLocked) " +
+            "from User u where u.username = :username")
+    UserCredentials findCredentialsByUsername(@Param("username") String username);
+
+    String USER_SUMMARY = "select new com.supportportal.supportportal.domain.UserSummary(u.id, u.userId, u.firstName, u.lastName, " +
+            "u.email, u.username, u.profileImageUrl, u.lastLoginDateDisplay, u.joinDate, u.roleMask, u.authorityMask, u.isActive, u.isNotLocked, u.version) " +
+            "from User u ";
+
+    @Query(USER_SUMMARY + "where u.username = :username")
+    UserSummary findSummaryByUsername(@Param("username") String username);
+
+    // Enough to answer a conditional GET: two columns through the unique index on username, no entity
+    @Query("select new com.supportportal.supportportal.domain.UserVersion(u.id, u.version) from User u where u.username = :username")
+    UserVersion findVersionByUsername(@Param("username") String username);
+
+    // The versions of one listing page, in the order of findSummariesAfter
+    @Query("select new com.supportportal.supportportal.domain.UserVersion(u.id, u.version) from User u where u.id > :afterId order by u.id")
+    List<UserVersion> findVersionsAfter(@Param("afterId") long afterId, Limit limit);
+
+    // Keyset (seek) pagination: the primary key index jumps straight to the page, whatever its depth
+    @Query(USER_SUMMARY + "where u.id > :afterId order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    // Rows are read through a server-side cursor (useCursorFetch=true on the MySQL URL) instead of being buffered
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(USER_SUMMARY + "order by u.id")
+    Stream<UserSummary> streamSummaries();
+
+    @Modifying
+    @Query("update User u set u.password = :password, u.version = u.version + 1 where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Modifying
+    @Query("update User u set u.profileImageUrl = :profileImageUrl, u.version = u.version + 1 where u.username = :username")
+    int updateProfileImageUrl(@Param("username") String username, @Param("profileImageUrl") String profileImageUrl);
 }
@@ -0,0 +1,35 @@
+package com.supportportal.supportportal.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.utility.JwtSigningKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Publishes the public keys tokens are verified with, so that other nodes can check them without calling this service
+@RestController
+public class JwksResource {
+
+    private byte[] jwks;
+
+    @Autowired
+    public JwksResource(JwtSigningKeys jwtSigningKeys, ObjectMapper objectMapper) throws JsonProcessingException {
+        // the keys only change on restart, so the document is serialized once
+        this.jwks = objectMapper.writeValueAsBytes(Map.of("keys", jwtSigningKeys.getJsonWebKeys()));
+    }
+
+    @GetMapping(path = SecurityConstant.JWKS_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(SecurityConstant.JWKS_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePublic())
+                .body(jwks);
+    }
+}
@@ -1,20 +1,215 @@
 package com.supportportal.supportportal.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.domain.ProfileImage;
+import com.supportportal.supportportal.domain.UserImportReport;
+import com.supportportal.supportportal.domain.UserPage;
+import com.supportportal.supportportal.domain.UserSearchIndexStats;
+import com.supportportal.supportportal.domain.UserSearchResult;
+import com.supportportal.supportportal.domain.UserSummary;
+import com.supportportal.supportportal.domain.UserVersion;
+import com.supportportal.supportportal.enumeration.ImportFormat;
 import com.supportportal.supportportal.exception.ExceptionHandling;
 import com.supportportal.supportportal.exception.domain.EmailExistException;
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import com.supportportal.supportportal.exception.domain.UserNotFoundException;
+import com.supportportal.supportportal.service.UserService;
+import com.supportportal.supportportal.utility.FileTransfer;
+import com.supportportal.supportportal.utility.ProfileImageStore;
+import com.supportportal.supportportal.utility.UserETags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.supportportal.supportportal.constant.FileConstant.IMAGE_MAX_AGE_SECONDS;
+import static com.supportportal.supportportal.constant.FileConstant.NO_USER_FOUND_BY_USERNAME;
+import static com.supportportal.supportportal.constant.UserConstant.*;
 
 @RestController
 @RequestMapping(path = {"/", "/user"})
 public class UserResource extends ExceptionHandling {
 
+    private UserService userService;
+    private ProfileImageStore profileImageStore;
+    private ObjectWriter rowWriter;
+
+    @Autowired
+    public UserResource(UserService userService, ProfileImageStore profileImageStore, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.profileImageStore = profileImageStore;
+        this.rowWriter = objectMapper.writer().withRootValueSeparator("\n");
+    }
+
     @GetMapping("/home")
     public String showUser() throws UsernameNotFoundException{
 //        return "Application works";
         throw new UsernameNotFoundException("The user was not found.");
     }
 
+    // Pass the nextAfter of a page as "after" to get the following one.
+    // A revalidation (If-None-Match) is answered from the ids and versions of the page before the summaries are selected
+    @GetMapping("/list")
+    public ResponseEntity<UserPage> getUsers(@RequestParam(name = "after", defaultValue = "0") long after,
+                                             @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                             WebRequest request) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(UserETags.ofPage(userService.getUserVersions(after, pageSize)))) {
+            return null;
+        }
+        UserPage page = userService.getUsers(after, pageSize);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).eTag(UserETags.ofSummaries(page.users())).body(page);
+    }
+
+    // Same conditional handling for one user, the version lookup reads two columns through the username index.
+    // Only the user themselves or a holder of user:read, checked first so that anyone else cannot tell which usernames exist
+    @GetMapping("/find/{username}")
+    public ResponseEntity<UserSummary> getUser(@PathVariable("username") String username, WebRequest request,
+                                               Authentication authentication) throws UserNotFoundException {
+        if (!isSelfOrHolds(authentication, username, SecurityConstant.USER_READ_AUTHORITY, SecurityConstant.ADMIN_AUTHORITY)) {
+            throw new AccessDeniedException(SecurityConstant.ACCESS_DENIED_MESSAGE);
+        }
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            UserVersion version = userService.findUserVersion(username);
+            if (version != null && request.checkNotModified(UserETags.of(version))) {
+                return null;
+            }
+        }
+        UserSummary user = userService.findUserSummary(username);
+        if (user == null) {
+            throw new UserNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).eTag(UserETags.of(user)).body(user);
+    }
+
+    // Type-ahead: users whose username, email, first name or last name contains q, answered from the in-memory index
+    @GetMapping("/search")
+    public ResponseEntity<List<UserSearchResult>> searchUsers(@RequestParam("q") String query,
+                                                              @RequestParam(name = "limit", defaultValue = "" + DEFAULT_SEARCH_LIMIT) int limit) {
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return ResponseEntity.ok(userService.searchUsers(query, resultLimit));
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<UserSearchIndexStats> getSearchIndexStats() {
+        return ResponseEntity.ok(userService.getSearchIndexStats());
+    }
+
+    // Every user as one JSON object per line, written while the rows come off the database cursor
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter rows = rowWriter.writeValues(outputStream)) {
+                int[] written = {0};
+                userService.forEachUser(user -> {
+                    try {
+                        rows.write(user);
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            rows.flush();
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(EXPORT_FILE_NAME).build().toString())
+                .body(body);
+    }
+
+    // The upload is read as it arrives, the report lists the rows that were rejected.
+    // Administrators only (SecurityConstant.ADMIN_URLS), and no row gets more than the importing administrator holds
+    @PostMapping(path = "/import", consumes = CSV_MEDIA_TYPE)
+    public ResponseEntity<UserImportReport> importCsv(InputStream body, Authentication authentication) throws IOException {
+        return ResponseEntity.ok(userService.importUsers(body, ImportFormat.CSV, authentication.getName()));
+    }
+
+    @PostMapping(path = "/import", consumes = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<UserImportReport> importNdjson(InputStream body, Authentication authentication) throws IOException {
+        return ResponseEntity.ok(userService.importUsers(body, ImportFormat.NDJSON, authentication.getName()));
+    }
+
+    // Only the user themselves or a holder of user:update, anyone else gets a 403 through ExceptionHandling
+    @PostMapping("/image/{username}")
+    public ResponseEntity<ProfileImage> updateProfileImage(@PathVariable("username") String username,
+                                                           @RequestParam("profileImage") MultipartFile profileImage,
+                                                           Authentication authentication)
+            throws UserNotFoundException, NotAnImageFileException, IOException {
+        if (!isSelfOrHolds(authentication, username, SecurityConstant.USER_UPDATE_AUTHORITY)) {
+            throw new AccessDeniedException(SecurityConstant.ACCESS_DENIED_MESSAGE);
+        }
+        return ResponseEntity.ok(userService.updateProfileImage(username, profileImage));
+    }
+
+    // The name is the content hash: it is the strong ETag, and the file is sent by the connector without entering the heap
+    @GetMapping("/image/{fileName}")
+    public void getProfileImage(@PathVariable("fileName") String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path image = profileImageStore.resolve(fileName);
+        if (image == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(IMAGE_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePublic().immutable().getHeaderValue());
+        String etag = "\"" + fileName.substring(0, fileName.indexOf('.')) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        FileTransfer.send(image, request, response);
+    }
+
+    // Null for anonymous requests: the servlet request exposes no principal for them
+    private static boolean isSelfOrHolds(Authentication authentication, String username, String... authorities) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        if (authentication.getName().equals(username)) {
+            return true;
+        }
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            for (String authority : authorities) {
+                if (authority.equals(granted.getAuthority())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
 }
@@ -1,6 +1,49 @@
 package com.supportportal.supportportal.service;
 
 
+import com.supportportal.supportportal.domain.ProfileImage;
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserImportReport;
+import com.supportportal.supportportal.domain.UserPage;
+import com.supportportal.supportportal.domain.UserSearchIndexStats;
+import com.supportportal.supportportal.domain.UserSearchResult;
+import com.supportportal.supportportal.domain.UserSummary;
+import com.supportportal.supportportal.domain.UserVersion;
+import com.supportportal.supportportal.enumeration.ImportFormat;
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import com.supportportal.supportportal.exception.domain.UserNotFoundException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface UserService {
 
+    User findUserByUsername(String username);
+
+    User findUserByEmail(String email);
+
+    User saveUser(User user);
+
+    void deleteUser(String username);
+
+    UserSummary findUserSummary(String username);
+
+    UserVersion findUserVersion(String username);
+
+    UserPage getUsers(long afterId, int size);
+
+    List<UserVersion> getUserVersions(long afterId, int size);
+
+    void forEachUser(Consumer<UserSummary> consumer);
+
+    List<UserSearchResult> searchUsers(String query, int limit);
+
+    UserSearchIndexStats getSearchIndexStats();
+
+    UserImportReport importUsers(InputStream input, ImportFormat format, String importedBy) throws IOException;
+
+    ProfileImage updateProfileImage(String username, MultipartFile profileImage) throws UserNotFoundException, NotAnImageFileException, IOException;
 }
@@ -0,0 +1,148 @@
+package com.supportportal.supportportal.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*  Write-behind buffer for the last login dates.
+ *  Logins only record the timestamp in memory (the latest one per user wins), the buffer is then flushed
+ *  as one batch of targeted UPDATE statements: periodically, when it grows past max-pending and on shutdown.
+ *  The statements bump the version, the cached entities of the updated users are evicted with them.
+ */
+@Component
+public class LastLoginRecorder {
+
+    // lastLoginDate moves to lastLoginDateDisplay, the guard keeps an older login from overwriting a newer one
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE user SET last_login_date_display = last_login_date, last_login_date = ?, version = version + 1 " +
+            "WHERE username = ? AND (last_login_date IS NULL OR last_login_date < ?)";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final Map<String, Date> pendingLogins = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "last-login-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDirectory userDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPending;
+
+    @Autowired
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             UserDirectory userDirectory,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${login.write-behind.max-pending:1000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userDirectory = userDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Records a login without touching the database
+     * @param username the user that has logged in
+     * @param loginDate the date of the login
+     */
+    public void recordLogin(String username, Date loginDate) {
+        keepLatest(username, loginDate);
+        if (pendingLogins.size() >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingLogins.size();
+    }
+
+    /**
+     * Writes all the buffered logins in one batch
+     * @return the number of users that were flushed
+     */
+    @Scheduled(fixedDelayString = "${login.write-behind.flush-interval:5000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> batch = drain();
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        userDirectory.evictEntities(updatedUsers(batch, jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch))));
+            } catch (RuntimeException exception) {
+                LOGGER.error("Could not flush " + batch.size() + " last login dates: " + exception.getMessage());
+                requeue(batch);
+                return 0;
+            }
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private List<Object[]> drain() {
+        List<Object[]> batch = new ArrayList<>(pendingLogins.size());
+        for (String username : pendingLogins.keySet()) {
+            Date loginDate = pendingLogins.remove(username);
+            if (loginDate != null) {
+                Timestamp timestamp = new Timestamp(loginDate.getTime());
+                batch.add(new Object[]{timestamp, username, timestamp});
+            }
+        }
+        return batch;
+    }
+
+    // The guard skips the rows that already hold a newer login, their version is unchanged
+    private static List<String> updatedUsers(List<Object[]> batch, int[] counts) {
+        List<String> updated = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts == null || i >= counts.length || counts[i] != 0) {
+                updated.add((String) batch.get(i)[1]);
+            }
+        }
+        return updated;
+    }
+
+    private void requeue(List<Object[]> batch) {
+        for (Object[] row : batch) {
+            keepLatest((String) row[1], new Date(((Timestamp) row[0]).getTime()));
+        }
+    }
+
+    private void keepLatest(String username, Date loginDate) {
+        pendingLogins.merge(username, loginDate, (current, latest) -> latest.after(current) ? latest : current);
+    }
+}
@@ -0,0 +1,159 @@
+package com.supportportal.supportportal.service.impl;
+
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserCredentials;
+import com.supportportal.supportportal.repository.UserRepository;
+import com.supportportal.supportportal.utility.ExpiringLoadingCache;
+import com.supportportal.supportportal.utility.ReadYourWrites;
+import com.supportportal.supportportal.utility.VerifiedCredentialCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*  Cache in front of the UserRepository lookups used on every authentication.
+ *  A burst of concurrent requests for the same username triggers a single query.
+ *  The cached users are shared between threads: treat them as read-only and save changes through the UserService,
+ *  which invalidates the entries, the verified HTTP Basic credentials of the user included.
+ *  Writes that bypass JPA and bump the version, like the last login flush, evict the entities as well.
+ *  An evicted user is pinned to the primary by ReadYourWrites, the reload cannot bring back a stale row from a lagging replica.
+ */
+@Component
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final ReadYourWrites readYourWrites;
+    private final ExpiringLoadingCache<String, User> usersByUsername;
+    private final ExpiringLoadingCache<String, User> usersByEmail;
+    private final ExpiringLoadingCache<String, UserCredentials> credentialsByUsername;
+
+    @Autowired
+    public UserDirectory(UserRepository userRepository, VerifiedCredentialCache verifiedCredentialCache, ReadYourWrites readYourWrites,
+                         @Value("${user.cache.ttl:60000}") long ttl,
+                         @Value("${user.cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+        this.readYourWrites = readYourWrites;
+        this.usersByUsername = new ExpiringLoadingCache<>(ttl, TimeUnit.MILLISECONDS, maxSize);
+        this.usersByEmail = new ExpiringLoadingCache<>(ttl, TimeUnit.MILLISECONDS, maxSize);
+        this.credentialsByUsername = new ExpiringLoadingCache<>(ttl, TimeUnit.MILLISECONDS, maxSize);
+    }
+
+    // Lean lookup for the authentication path
+    public UserCredentials findCredentialsByUsername(String username) {
+        return credentialsByUsername.get(username, name -> readYourWrites.lookUp(name, () -> userRepository.findCredentialsByUsername(name)));
+    }
+
+    public User findUserByUsername(String username) {
+        return usersByUsername.get(username, name -> readYourWrites.lookUp(name, () -> userRepository.findUserByUsername(name)));
+    }
+
+    public User findUserByEmail(String email) {
+        return usersByEmail.get(email, userRepository::findUserByEmail);
+    }
+
+    /**
+     * Removes every cached copy of the user, also the ones stored under a previous username or email.
+     * Inside a transaction the entries are removed again after the commit, so that a lookup running
+     * concurrently with the transaction cannot leave the old state in the cache
+     * @param user the user that was saved or deleted
+     */
+    public void evict(User user) {
+        readYourWrites.pin(user.getUsername());
+        evictNow(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(user);
+                }
+            });
+        }
+    }
+
+    // For targeted updates that do not change the username. The verified credentials are dropped again after the commit,
+    // a check that read the old password before it was committed must not stay cached
+    public void evict(String username) {
+        readYourWrites.pin(username);
+        usersByUsername.invalidate(username);
+        credentialsByUsername.invalidate(username);
+        usersByEmail.invalidateIf(cached -> Objects.equals(cached.getUsername(), username));
+        verifiedCredentialCache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    verifiedCredentialCache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the cached entities of users whose row was updated behind JPA, as the last login flush does.
+     * The update bumps the version: a save starting from the cached copy would fail its optimistic lock check.
+     * The credentials are left cached, the update does not change them
+     * @param usernames the users that were updated
+     */
+    public void evictEntities(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        Set<String> updated = Set.copyOf(usernames);
+        updated.forEach(readYourWrites::pin);
+        evictEntitiesNow(updated);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEntitiesNow(updated);
+                }
+            });
+        }
+    }
+
+    private void evictEntitiesNow(Set<String> usernames) {
+        usernames.forEach(usersByUsername::invalidate);
+        usersByEmail.invalidateIf(cached -> usernames.contains(cached.getUsername()));
+    }
+
+    private void evictNow(User user) {
+        verifiedCredentialCache.invalidateAll(); // the user may have been renamed, its previous username is not known
+        usersByUsername.invalidate(user.getUsername());
+        credentialsByUsername.invalidate(user.getUsername());
+        if (user.getEmail() != null) {
+            usersByEmail.invalidate(user.getEmail());
+        }
+        if (user.getId() != null) {
+            usersByUsername.invalidateIf(cached -> Objects.equals(cached.getId(), user.getId()));
+            usersByEmail.invalidateIf(cached -> Objects.equals(cached.getId(), user.getId()));
+            credentialsByUsername.invalidateIf(cached -> Objects.equals(cached.id(), user.getId()));
+        }
+    }
+
+    public void evictAll() {
+        verifiedCredentialCache.invalidateAll();
+        usersByUsername.invalidateAll();
+        usersByEmail.invalidateAll();
+        credentialsByUsername.invalidateAll();
+    }
+
+    public ExpiringLoadingCache<String, User> getUsernameCache() {
+        return usersByUsername;
+    }
+
+    public ExpiringLoadingCache<String, User> getEmailCache() {
+        return usersByEmail;
+    }
+
+    public ExpiringLoadingCache<String, UserCredentials> getCredentialsCache() {
+        return credentialsByUsername;
+    }
+}
@@ -0,0 +1,443 @@
+package com.supportportal.supportportal.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supportportal.supportportal.domain.UserImportError;
+import com.supportportal.supportportal.domain.UserImportReport;
+import com.supportportal.supportportal.enumeration.Authority;
+import com.supportportal.supportportal.enumeration.ImportFormat;
+import com.supportportal.supportportal.exception.domain.EmailExistException;
+import com.supportportal.supportportal.exception.domain.UsernameExistException;
+import com.supportportal.supportportal.utility.BoundedBCryptPasswordEncoder;
+import com.supportportal.supportportal.utility.ReadYourWrites;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.supportportal.supportportal.constant.UserConstant.*;
+
+/*  Bulk user import.
+ *  The upload is read line by line and processed in chunks: duplicates are filtered with one IN query per column,
+ *  the passwords of the chunk are hashed in parallel and the rows are written with a single JDBC batch in their own transaction.
+ *  A row that cannot be imported is reported with its line number, the rest of the upload goes on.
+ *  The committed rows of each chunk are read back into the search index.
+ *  A row cannot grant a role above the importer's own, nor authorities the importer does not hold. Without a role it gets ROLE_USER.
+ */
+@Component
+public class UserImporter {
+
+    private static final String INSERT_USER = "INSERT INTO user (user_id, first_name, last_name, email, profile_image_url, " +
+            "username, password, join_date, role_mask, authority_mask, is_active, is_not_locked, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String EXISTING_USERNAMES = "SELECT username FROM user WHERE username IN (:values)";
+    private static final String EXISTING_EMAILS = "SELECT email FROM user WHERE email IN (:values)";
+    private static final String COUNT_BY_USERNAME = "SELECT COUNT(*) FROM user WHERE username = ?";
+    private static final String COUNT_BY_EMAIL = "SELECT COUNT(*) FROM user WHERE email = ?";
+    private static final String IMPORTER_MASKS = "SELECT role_mask, authority_mask FROM user WHERE username = ?";
+    private static final int USER_ID_ATTEMPTS = 3;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ExecutorService hashExecutor;
+    private final UserSearchIndex userSearchIndex;
+    private final ReadYourWrites readYourWrites;
+    private final int chunkSize;
+
+    @Autowired
+    public UserImporter(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper,
+                        BCryptPasswordEncoder bCryptPasswordEncoder,
+                        UserSearchIndex userSearchIndex,
+                        ReadYourWrites readYourWrites,
+                        @Value("${import.chunk-size:1000}") int chunkSize,
+                        @Value("${import.hash-threads:0}") int hashThreads,
+                        @Value("${import.bcrypt-strength:0}") int bcryptStrength) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.userSearchIndex = userSearchIndex;
+        this.readYourWrites = readYourWrites;
+        this.passwordEncoder = new BCryptPasswordEncoder(bcryptStrength > 0 ? bcryptStrength : strengthOf(bCryptPasswordEncoder));
+        this.chunkSize = chunkSize;
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Separate from the login hashing pool, so an import cannot fill its queue and get logins rejected
+        this.hashExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports users from a CSV (with a header line) or an NDJSON upload
+     * @param input the upload, read as UTF-8
+     * @param format the format of the upload
+     * @param importedBy the username of the administrator importing, whose role and authorities bound those of the rows
+     * @return the number of imported users and the rows that were rejected
+     * @throws IOException if the upload cannot be read
+     */
+    public UserImportReport importUsers(InputStream input, ImportFormat format, String importedBy) throws IOException {
+        long start = System.currentTimeMillis();
+        // read from the database rather than the token, which keeps its authorities until it expires
+        long[] importerMasks = jdbcTemplate.query(IMPORTER_MASKS,
+                resultSet -> resultSet.next() ? new long[]{resultSet.getLong(1), resultSet.getLong(2)} : new long[2], importedBy);
+        Report report = new Report();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> userIds = new HashSet<>();
+        List<ImportedUser> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> header = null;
+        long lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == ImportFormat.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            ImportedUser user;
+            try {
+                user = format == ImportFormat.CSV ? fromCsv(lineNumber, line, header) : fromJson(lineNumber, line);
+            } catch (JsonProcessingException exception) {
+                report.reject(lineNumber, null, exception.getClass().getSimpleName(), exception.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException exception) {
+                report.reject(lineNumber, null, exception.getClass().getSimpleName(), exception.getMessage());
+                continue;
+            }
+            String deniedGrant = deniedGrant(user.roleMask, user.authorityMask, importerMasks[0], importerMasks[1]);
+            if (deniedGrant != null) {
+                report.reject(user, new AccessDeniedException(deniedGrant));
+            } else if (!usernames.add(user.username)) {
+                report.reject(user, new UsernameExistException(USERNAME_ALREADY_EXISTS));
+            } else if (!emails.add(user.email)) {
+                report.reject(user, new EmailExistException(EMAIL_ALREADY_EXISTS));
+            } else {
+                user.userId = generateUserId(userIds);
+                chunk.add(user);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+        UserImportReport result = report.toReport(System.currentTimeMillis() - start);
+        LOGGER.info("Imported " + result.imported() + " users, rejected " + result.failed() + " in " + result.durationMillis() + " ms");
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    // Splits a CSV line, fields may be quoted and a quote inside a quoted field is doubled. Fields cannot span lines.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Checks a row against the importer: roles are ranked by their bit in the catalogue, authorities must all be held
+     * @return why the row cannot be imported, or null if it can
+     */
+    static String deniedGrant(long roleMask, long authorityMask, long importerRoleMask, long importerAuthorityMask) {
+        if (Long.highestOneBit(roleMask) > Long.highestOneBit(importerRoleMask)) {
+            return String.format(ROLE_ABOVE_IMPORTER, String.join(" ", Authority.toNames(roleMask)));
+        }
+        long notHeld = authorityMask & ~importerAuthorityMask;
+        if (notHeld != 0) {
+            return String.format(AUTHORITY_NOT_HELD, String.join(" ", Authority.toNames(notHeld)));
+        }
+        return null;
+    }
+
+    private void importChunk(List<ImportedUser> chunk, Report report) {
+        Set<String> existingUsernames = findExisting(EXISTING_USERNAMES, chunk, user -> user.username);
+        Set<String> existingEmails = findExisting(EXISTING_EMAILS, chunk, user -> user.email);
+        List<ImportedUser> accepted = new ArrayList<>(chunk.size());
+        for (ImportedUser user : chunk) {
+            if (existingUsernames.contains(user.username)) {
+                report.reject(user, new UsernameExistException(USERNAME_ALREADY_EXISTS));
+            } else if (existingEmails.contains(user.email)) {
+                report.reject(user, new EmailExistException(EMAIL_ALREADY_EXISTS));
+            } else {
+                accepted.add(user);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        hashPasswords(accepted);
+        Timestamp joinDate = new Timestamp(System.currentTimeMillis());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, accepted, accepted.size(),
+                    (statement, user) -> bind(statement, user, joinDate)));
+            report.imported += accepted.size();
+            List<String> inserted = accepted.stream().map(user -> user.username).toList();
+            inserted.forEach(readYourWrites::pin); // a first login must not miss the new user on a lagging replica
+            userSearchIndex.refresh(inserted);
+        } catch (DataIntegrityViolationException exception) {
+            // A concurrent registration, a case-insensitive duplicate or a user_id collision: the batch was rolled back
+            LOGGER.warn("Batch insert failed, importing the chunk row by row: " + exception.getMostSpecificCause().getMessage());
+            List<String> inserted = new ArrayList<>(accepted.size());
+            for (ImportedUser user : accepted) {
+                if (importOne(user, joinDate, report)) {
+                    inserted.add(user.username);
+                }
+            }
+            inserted.forEach(readYourWrites::pin);
+            userSearchIndex.refresh(inserted);
+        }
+    }
+
+    private boolean importOne(ImportedUser user, Timestamp joinDate, Report report) {
+        for (int attempt = 1; attempt <= USER_ID_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.update(INSERT_USER, statement -> bind(statement, user, joinDate));
+                report.imported++;
+                return true;
+            } catch (DuplicateKeyException exception) {
+                if (exists(COUNT_BY_USERNAME, user.username)) {
+                    report.reject(user, new UsernameExistException(USERNAME_ALREADY_EXISTS));
+                    return false;
+                }
+                if (exists(COUNT_BY_EMAIL, user.email)) {
+                    report.reject(user, new EmailExistException(EMAIL_ALREADY_EXISTS));
+                    return false;
+                }
+                if (attempt == USER_ID_ATTEMPTS) {
+                    report.reject(user.line, user.username, exception.getClass().getSimpleName(), exception.getMostSpecificCause().getMessage());
+                    return false;
+                }
+                user.userId = RandomStringUtils.randomNumeric(10);
+            }
+        }
+        return false;
+    }
+
+    private void hashPasswords(List<ImportedUser> users) {
+        List<Future<String>> hashes = new ArrayList<>(users.size());
+        for (ImportedUser user : users) {
+            String password = user.password;
+            hashes.add(hashExecutor.submit(() -> passwordEncoder.encode(password)));
+        }
+        try {
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).password = hashes.get(i).get();
+            }
+        } catch (InterruptedException exception) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing the imported passwords", exception);
+        } catch (ExecutionException exception) {
+            hashes.forEach(hash -> hash.cancel(true));
+            throw new IllegalStateException("Could not hash the imported passwords", exception.getCause());
+        }
+    }
+
+    private void bind(PreparedStatement statement, ImportedUser user, Timestamp joinDate) throws SQLException {
+        statement.setString(1, user.userId);
+        statement.setString(2, user.firstName);
+        statement.setString(3, user.lastName);
+        statement.setString(4, user.email);
+        statement.setString(5, null);
+        statement.setString(6, user.username);
+        statement.setString(7, user.password);
+        statement.setTimestamp(8, joinDate);
+        statement.setLong(9, user.roleMask);
+        statement.setLong(10, user.authorityMask);
+        statement.setBoolean(11, true);
+        statement.setBoolean(12, true);
+    }
+
+    private Set<String> findExisting(String sql, List<ImportedUser> users, Function<ImportedUser, String> column) {
+        List<String> values = users.stream().map(column).toList();
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(sql, Map.of("values", values), String.class));
+    }
+
+    private boolean exists(String sql, String value) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, value);
+        return count != null && count > 0;
+    }
+
+    private static String generateUserId(Set<String> userIds) {
+        String userId;
+        do {
+            userId = RandomStringUtils.randomNumeric(10);
+        } while (!userIds.add(userId));
+        return userId;
+    }
+
+    // Column names are matched ignoring case and underscores: firstName, first_name and FIRSTNAME are the same column
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> names = parseCsvLine(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(normalize(names.get(i)), i);
+        }
+        return header;
+    }
+
+    private static ImportedUser fromCsv(long line, String text, Map<String, Integer> header) {
+        List<String> fields = parseCsvLine(text);
+        Function<String, String> field = name -> {
+            Integer index = header.get(name);
+            return index == null || index >= fields.size() || fields.get(index).isEmpty() ? null : fields.get(index);
+        };
+        String authorities = field.apply("authorities");
+        return new ImportedUser(line, field.apply("firstname"), field.apply("lastname"), field.apply("username"),
+                field.apply("email"), field.apply("password"), field.apply("role"),
+                authorities == null ? null : authorities.split("\\s+"));
+    }
+
+    private ImportedUser fromJson(long line, String text) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(text);
+        Function<String, String> field = name -> node.hasNonNull(name) && !node.get(name).asText().isBlank() ? node.get(name).asText().trim() : null;
+        String[] authorities = null;
+        JsonNode authorityNode = node.get("authorities");
+        if (authorityNode != null && authorityNode.isArray()) {
+            authorities = new String[authorityNode.size()];
+            for (int i = 0; i < authorities.length; i++) {
+                authorities[i] = authorityNode.get(i).asText();
+            }
+        } else if (authorityNode != null && authorityNode.isTextual()) {
+            authorities = authorityNode.asText().trim().split("\\s+");
+        }
+        return new ImportedUser(line, field.apply("firstName"), field.apply("lastName"), field.apply("username"),
+                field.apply("email"), field.apply("password"), field.apply("role"), authorities);
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static int strengthOf(BCryptPasswordEncoder encoder) {
+        return encoder instanceof BoundedBCryptPasswordEncoder bounded ? bounded.getStrength() : 10;
+    }
+
+    private static final class ImportedUser {
+
+        private final long line;
+        private final String firstName;
+        private final String lastName;
+        private final String username;
+        private final String email;
+        private final long roleMask;
+        private final long authorityMask;
+        private String password; // replaced by its hash before the insert
+        private String userId;
+
+        private ImportedUser(long line, String firstName, String lastName, String username, String email, String password,
+                             String role, String[] authorities) {
+            this.line = line;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.username = require(username, "username");
+            this.email = require(email, "email");
+            this.password = require(password, "password");
+            this.roleMask = Authority.toMask(role == null ? DEFAULT_ROLE : role);
+            this.authorityMask = Authority.toMask(authorities == null ? new String[]{DEFAULT_AUTHORITIES} : authorities);
+        }
+
+        private static String require(String value, String name) {
+            if (value == null) {
+                throw new IllegalArgumentException(String.format(MISSING_FIELD, name));
+            }
+            return value;
+        }
+    }
+
+    private static final class Report {
+
+        private final List<UserImportError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        private void reject(ImportedUser user, Exception exception) {
+            reject(user.line, user.username, exception.getClass().getSimpleName(), exception.getMessage());
+        }
+
+        private void reject(long line, String username, String error, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+                errors.add(new UserImportError(line, username, error, message));
+            }
+        }
+
+        private UserImportReport toReport(long durationMillis) {
+            return new UserImportReport(imported, failed, List.copyOf(errors), durationMillis);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.supportportal.supportportal.service.impl;
+
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserSearchIndexStats;
+import com.supportportal.supportportal.domain.UserSearchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/*  In-memory type-ahead index over the username, email, first name and last name of every user.
+ *  Each field is split into lowercase trigrams and every trigram keeps the sorted slots of the users containing it,
+ *  the first one and two characters of each field are indexed as well to answer short prefix queries.
+ *  A query intersects the lists of its grams and confirms the candidates against the stored text,
+ *  so a result always contains the query. Prefix matches are listed before the other substring matches.
+ *  The index is built by streaming the table once the application is ready and is kept up to date after each commit.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final String SELECT_USERS = "SELECT id, username, email, first_name, last_name FROM user";
+    private static final String SELECT_USERS_BY_USERNAME = SELECT_USERS + " WHERE username IN (:values)";
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<Consumer<Index>> pendingUpdates; // changes committed while a rebuild streams the table
+    private volatile long lastBuildMillis;
+
+    @Autowired
+    public UserSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = jdbcTemplate == null ? null : new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Builds a new index from the user table and swaps it in, searches keep using the previous one meanwhile
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Index fresh = new Index();
+        withWriteLock(() -> pendingUpdates = new ArrayList<>());
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(SELECT_USERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> put(fresh, resultSet));
+        } catch (DataAccessException exception) {
+            withWriteLock(() -> pendingUpdates = null);
+            LOGGER.error("Could not build the user search index", exception);
+            return;
+        }
+        fresh.trim();
+        withWriteLock(() -> {
+            pendingUpdates.forEach(update -> update.accept(fresh));
+            pendingUpdates = null;
+            index = fresh;
+        });
+        lastBuildMillis = System.currentTimeMillis() - start;
+        UserSearchIndexStats stats = getStats();
+        LOGGER.info("Indexed " + stats.users() + " users for search in " + lastBuildMillis + " ms, about "
+                + stats.estimatedBytes() / (1024 * 1024) + " MB");
+    }
+
+    /**
+     * Indexes a saved user once the current transaction commits, immediately when there is none
+     * @param user the saved user, with its id
+     */
+    public void update(User user) {
+        afterCommit(() -> put(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName()));
+    }
+
+    /**
+     * Removes a deleted user once the current transaction commits, immediately when there is none
+     * @param user the deleted user
+     */
+    public void delete(User user) {
+        afterCommit(() -> remove(user.getId()));
+    }
+
+    /**
+     * Reads users written without JPA, such as bulk imports, back from the table and indexes them
+     * @param usernames the usernames of the committed users
+     */
+    public void refresh(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return;
+        }
+        List<Consumer<Index>> updates = new ArrayList<>(usernames.size());
+        namedParameterJdbcTemplate.query(SELECT_USERS_BY_USERNAME, Map.of("values", usernames), (RowCallbackHandler) resultSet -> {
+            long id = resultSet.getLong(1);
+            String username = resultSet.getString(2);
+            String email = resultSet.getString(3);
+            String firstName = resultSet.getString(4);
+            String lastName = resultSet.getString(5);
+            updates.add(target -> target.put(id, username, email, firstName, lastName));
+        });
+        apply(target -> updates.forEach(update -> update.accept(target)));
+    }
+
+    public void put(long id, String username, String email, String firstName, String lastName) {
+        apply(target -> target.put(id, username, email, firstName, lastName));
+    }
+
+    public void remove(long id) {
+        apply(target -> target.remove(id));
+    }
+
+    /**
+     * Finds the users whose username, email, first name or last name contains the query, ignoring case
+     * @param query the text typed so far
+     * @param limit the maximum number of results
+     * @return the prefix matches followed by the other matches, in insertion order within each group
+     */
+    public List<UserSearchResult> search(String query, int limit) {
+        String needle = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty() || limit <= 0 || needle.indexOf(Index.SEPARATOR) >= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(needle, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public UserSearchIndexStats getStats() {
+        lock.readLock().lock();
+        try {
+            return index.stats(lastBuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Index> update) {
+        withWriteLock(() -> {
+            update.accept(index);
+            if (index.needsCompaction()) {
+                long start = System.currentTimeMillis();
+                index = index.compact();
+                LOGGER.info("Compacted the user search index in " + (System.currentTimeMillis() - start) + " ms");
+            }
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(Index target, ResultSet resultSet) throws SQLException {
+        target.put(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4), resultSet.getString(5));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Not thread-safe, guarded by the lock of the enclosing index
+    private static final class Index {
+
+        private static final char SEPARATOR = '\n';
+        private static final int FIELDS = 4;
+        private static final long PREFIX_1 = 1L << 48;
+        private static final long PREFIX_2 = 2L << 48;
+        private static final int COMPACTION_THRESHOLD = 1024;
+        // Rough per-object sizes for a 64-bit JVM with compressed oops
+        private static final int POSTING_ENTRY_BYTES = 16 + 24 + 32 + 8; // Long key, IntList, map node, table slot
+        private static final int LOOKUP_ENTRY_BYTES = 16 + 16 + 32 + 8; // Long key, Integer value, map node, table slot
+        private static final int STRING_BYTES = 24 + 16; // String and its array headers
+
+        private final Map<Long, IntList> postings = new HashMap<>();
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private long[] ids = new long[64];
+        private String[] fields = new String[64 * FIELDS];
+        private String[] texts = new String[64]; // lowercase fields, each preceded by the separator; null once removed
+        private int slots;
+        private int removed;
+        private long documentBytes;
+
+        private void put(long id, String username, String email, String firstName, String lastName) {
+            remove(id);
+            if (slots == ids.length) {
+                int capacity = slots * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                fields = Arrays.copyOf(fields, capacity * FIELDS);
+                texts = Arrays.copyOf(texts, capacity);
+            }
+            int slot = slots++;
+            String[] values = {username, email, firstName, lastName};
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < FIELDS; i++) {
+                String value = values[i] == null ? "" : values[i];
+                fields[slot * FIELDS + i] = value;
+                documentBytes += stringBytes(value);
+                String lowerCase = value.toLowerCase(Locale.ROOT).replace(SEPARATOR, ' ');
+                text.append(SEPARATOR).append(lowerCase);
+                if (!lowerCase.isEmpty()) {
+                    add(PREFIX_1 | lowerCase.charAt(0), slot);
+                }
+                if (lowerCase.length() > 1) {
+                    add(PREFIX_2 | (long) lowerCase.charAt(0) << 16 | lowerCase.charAt(1), slot);
+                }
+                for (int j = 0; j + 3 <= lowerCase.length(); j++) {
+                    add(trigram(lowerCase, j), slot);
+                }
+            }
+            ids[slot] = id;
+            texts[slot] = text.toString();
+            documentBytes += stringBytes(texts[slot]);
+            slotById.put(id, slot);
+        }
+
+        // The slot stays in the posting lists until the next compaction, searches skip it
+        private void remove(long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            for (int i = 0; i < FIELDS; i++) {
+                documentBytes -= stringBytes(fields[slot * FIELDS + i]);
+                fields[slot * FIELDS + i] = null;
+            }
+            documentBytes -= stringBytes(texts[slot]);
+            texts[slot] = null;
+            removed++;
+        }
+
+        private void add(long gram, int slot) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(gram, list);
+            }
+            list.addIfAbsent(slot);
+        }
+
+        private List<UserSearchResult> search(String needle, int limit) {
+            String anchored = SEPARATOR + needle;
+            List<UserSearchResult> results = new ArrayList<>(limit);
+            Set<Integer> prefixSlots = new HashSet<>();
+            // Prefix matches first, from the lists of the leading characters and of the trigrams
+            List<IntList> prefixLists = gramLists(needle, true);
+            if (prefixLists != null) {
+                intersect(prefixLists, slot -> {
+                    if (texts[slot] != null && texts[slot].contains(anchored)) {
+                        prefixSlots.add(slot);
+                        results.add(result(slot, true));
+                    }
+                    return results.size() < limit;
+                });
+            }
+            if (results.size() == limit) {
+                return results;
+            }
+            SlotVisitor other = slot -> {
+                if (texts[slot] != null && !prefixSlots.contains(slot) && texts[slot].contains(needle)) {
+                    results.add(result(slot, false));
+                }
+                return results.size() < limit;
+            };
+            if (needle.length() < 3) {
+                // Too short for trigrams: scan the documents until enough results are found
+                int slot = 0;
+                while (slot < slots && other.visit(slot)) {
+                    slot++;
+                }
+            } else {
+                intersect(gramLists(needle, false), other);
+            }
+            return results;
+        }
+
+        // The posting lists a match must appear in, smallest first, or null when one of them is empty
+        private List<IntList> gramLists(String needle, boolean prefix) {
+            List<Long> grams = new ArrayList<>();
+            if (prefix) {
+                grams.add(needle.length() == 1 ? PREFIX_1 | needle.charAt(0) : PREFIX_2 | (long) needle.charAt(0) << 16 | needle.charAt(1));
+            }
+            for (int i = 0; i + 3 <= needle.length(); i++) {
+                grams.add(trigram(needle, i));
+            }
+            List<IntList> lists = new ArrayList<>(grams.size());
+            for (Long gram : new LinkedHashSet<>(grams)) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    return null;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            return lists;
+        }
+
+        // Walks the smallest list and binary searches the others, each from where the previous lookup stopped
+        private static void intersect(List<IntList> lists, SlotVisitor visitor) {
+            if (lists == null || lists.isEmpty()) {
+                return;
+            }
+            IntList smallest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            candidates:
+            for (int i = 0; i < smallest.size; i++) {
+                int slot = smallest.values[i];
+                for (int l = 1; l < lists.size(); l++) {
+                    IntList list = lists.get(l);
+                    int position = Arrays.binarySearch(list.values, cursors[l], list.size, slot);
+                    if (position < 0) {
+                        cursors[l] = -position - 1;
+                        if (cursors[l] == list.size) {
+                            return;
+                        }
+                        continue candidates;
+                    }
+                    cursors[l] = position;
+                }
+                if (!visitor.visit(slot)) {
+                    return;
+                }
+            }
+        }
+
+        private UserSearchResult result(int slot, boolean prefixMatch) {
+            int offset = slot * FIELDS;
+            return new UserSearchResult(ids[slot], fields[offset], fields[offset + 1], fields[offset + 2], fields[offset + 3], prefixMatch);
+        }
+
+        private boolean needsCompaction() {
+            return removed > COMPACTION_THRESHOLD && removed * 4 > slots;
+        }
+
+        // Copies the live users into a new index, dropping the removed slots from the posting lists
+        private Index compact() {
+            Index compacted = new Index();
+            for (int slot = 0; slot < slots; slot++) {
+                if (texts[slot] != null) {
+                    int offset = slot * FIELDS;
+                    compacted.put(ids[slot], fields[offset], fields[offset + 1], fields[offset + 2], fields[offset + 3]);
+                }
+            }
+            compacted.trim();
+            return compacted;
+        }
+
+        private void trim() {
+            postings.values().forEach(IntList::trim);
+        }
+
+        private UserSearchIndexStats stats(long lastBuildMillis) {
+            long postingCount = 0;
+            long postingBytes = (long) postings.size() * POSTING_ENTRY_BYTES;
+            for (IntList list : postings.values()) {
+                postingCount += list.size;
+                postingBytes += 16 + 4L * list.values.length;
+            }
+            long arrayBytes = 8L * ids.length + 4L * fields.length + 4L * texts.length;
+            long lookupBytes = (long) slotById.size() * LOOKUP_ENTRY_BYTES;
+            return new UserSearchIndexStats(slotById.size(), slots, postings.size(), postingCount, postingBytes,
+                    documentBytes + arrayBytes, lookupBytes, postingBytes + documentBytes + arrayBytes + lookupBytes, lastBuildMillis);
+        }
+
+        private static long trigram(String text, int start) {
+            return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+        }
+
+        private static long stringBytes(String value) {
+            if (value == null) {
+                return 0;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > 0xFF) {
+                    return STRING_BYTES + 2L * value.length();
+                }
+            }
+            return STRING_BYTES + value.length();
+        }
+    }
+
+    // Slots are appended in increasing order, so every list stays sorted without sorting
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void addIfAbsent(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+            }
+            values[size++] = value;
+        }
+
+        private void trim() {
+            if (values.length > size) {
+                values = Arrays.copyOf(values, Math.max(size, 1));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        // Returns false to stop the walk
+        boolean visit(int slot);
+    }
+}
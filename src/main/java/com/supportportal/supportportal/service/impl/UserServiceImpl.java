@@ -1,50 +1,243 @@
 package com.supportportal.supportportal.service.impl;
 
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.supportportal.supportportal.domain.ProfileImage;
 import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserCredentials;
+import com.supportportal.supportportal.domain.UserImportReport;
+import com.supportportal.supportportal.domain.UserPage;
 import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.domain.UserSearchIndexStats;
+import com.supportportal.supportportal.domain.UserSearchResult;
+import com.supportportal.supportportal.domain.UserSummary;
+import com.supportportal.supportportal.domain.UserVersion;
+import com.supportportal.supportportal.enumeration.ImportFormat;
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import com.supportportal.supportportal.exception.domain.UserNotFoundException;
 import com.supportportal.supportportal.repository.UserRepository;
 import com.supportportal.supportportal.service.UserService;
-import jakarta.transaction.Transactional;
+import com.supportportal.supportportal.utility.ProfileImageStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.supportportal.supportportal.constant.FileConstant.NO_USER_FOUND_BY_USERNAME;
+import static com.supportportal.supportportal.constant.FileConstant.USER_IMAGE_PATH;
 
 @Service
 @Transactional
 @Qualifier("userDetailsService")
-public class UserServiceImpl implements UserService, UserDetailsService {
+public class UserServiceImpl implements UserService, UserDetailsService, UserDetailsPasswordService {
 
     public Logger LOGGER = LoggerFactory.getLogger(UserServiceImpl.class);  // getClass()
     private UserRepository userRepository;
+    private UserDirectory userDirectory;
+    private LastLoginRecorder lastLoginRecorder;
+    private UserImporter userImporter;
+    private ProfileImageStore profileImageStore;
+    private UserSearchIndex userSearchIndex;
+    private TransactionTemplate transactionTemplate;
+    private Timer userFoundTimer;
+    private Timer userNotFoundTimer;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserDirectory userDirectory, LastLoginRecorder lastLoginRecorder,
+                           UserImporter userImporter, ProfileImageStore profileImageStore, UserSearchIndex userSearchIndex,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.lastLoginRecorder = lastLoginRecorder;
+        this.userImporter = userImporter;
+        this.profileImageStore = profileImageStore;
+        this.userSearchIndex = userSearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userFoundTimer = loadTimer(meterRegistry, MetricConstant.OUTCOME_FOUND);
+        this.userNotFoundTimer = loadTimer(meterRegistry, MetricConstant.OUTCOME_NOT_FOUND);
     }
 
     // Gets called whenever Spring Security is trying to check the authentication of the user
+    // Read-only methods run on a replica when replicas are enabled, see ReadWriteRoutingDataSource
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepository.findUserByUsername(username);
-        if( user == null){
+        long start = System.nanoTime();
+        UserCredentials userCredentials = userDirectory.findCredentialsByUsername(username);
+        if( userCredentials == null){
             LOGGER.error("User not found by username: " + username);
+            userNotFoundTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             throw new UsernameNotFoundException("User not found by username: " + username);
         }else{
-            user.setLastLoginDateDisplay(user.getLastLoginDate());
-            user.setLastLoginDate(new Date());
-            userRepository.save(user);
+            // the entity is left untouched: the login is buffered and written later as a targeted batch UPDATE
+            lastLoginRecorder.recordLogin(username, new Date());
 
-            UserPrincipal userPrincipal = new UserPrincipal(user);
+            UserPrincipal userPrincipal = new UserPrincipal(userCredentials);
             LOGGER.info("Returning found user by username: " + username);
+            userFoundTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             return userPrincipal;
         }
     }
+
+    // Gets called by Spring Security after a successful login when the stored hash does not use the calibrated BCrypt cost
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        userDirectory.evict(user.getUsername());
+        LOGGER.info("Re-hashed the password of user: " + user.getUsername());
+        if (user instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.withPassword(newPassword);
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findUserByUsername(String username) {
+        return userDirectory.findUserByUsername(username);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findUserByEmail(String email) {
+        return userDirectory.findUserByEmail(email);
+    }
+
+    @Override
+    public User saveUser(User user) {
+        User savedUser = userRepository.save(user);
+        userDirectory.evict(savedUser);
+        userSearchIndex.update(savedUser);
+        return savedUser;
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        User user = userRepository.findUserByUsername(username);
+        if (user != null) {
+            userRepository.delete(user);
+            userDirectory.evict(user);
+            userSearchIndex.delete(user);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserSummary findUserSummary(String username) {
+        return userRepository.findSummaryByUsername(username);
+    }
+
+    // Read from the table, not from the UserDirectory cache: the JDBC updates change the version without evicting it
+    @Override
+    @Transactional(readOnly = true)
+    public UserVersion findUserVersion(String username) {
+        return userRepository.findVersionByUsername(username);
+    }
+
+    /**
+     * Gets one page of users, seeking past the last id of the previous page instead of using an OFFSET
+     * @param afterId the last id of the previous page, 0 for the first page
+     * @param size the number of users on the page
+     * @return the page and the cursor of the next one
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserPage getUsers(long afterId, int size) {
+        List<UserSummary> users = userRepository.findSummariesAfter(afterId, Limit.of(size));
+        Long nextAfter = users.size() < size ? null : users.get(users.size() - 1).id();
+        return new UserPage(users, nextAfter);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserVersion> getUserVersions(long afterId, int size) {
+        return userRepository.findVersionsAfter(afterId, Limit.of(size));
+    }
+
+    // Streams every user from a database cursor, the transaction keeps the connection open until the consumer is done
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<UserSummary> consumer) {
+        try (Stream<UserSummary> users = userRepository.streamSummaries()) {
+            users.forEach(consumer);
+        }
+    }
+
+    // Answered from memory, no transaction needed
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<UserSearchResult> searchUsers(String query, int limit) {
+        return userSearchIndex.search(query, limit);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserSearchIndexStats getSearchIndexStats() {
+        return userSearchIndex.getStats();
+    }
+
+    // Runs outside the service transaction: every chunk of the import is committed on its own
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserImportReport importUsers(InputStream input, ImportFormat format, String importedBy) throws IOException {
+        return userImporter.importUsers(input, format, importedBy);
+    }
+
+    /**
+     * Stores a new profile image and points the user to it
+     * @param username the user whose image changes
+     * @param profileImage the uploaded image
+     * @return the URLs of the image and its thumbnail
+     */
+    // Copying, hashing and thumbnailing the upload runs outside any transaction, only the URL update holds a connection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProfileImage updateProfileImage(String username, MultipartFile profileImage) throws UserNotFoundException, NotAnImageFileException, IOException {
+        if (userDirectory.findCredentialsByUsername(username) == null) {
+            throw new UserNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
+        }
+        String imageName;
+        try (InputStream input = profileImage.getInputStream()) {
+            imageName = profileImageStore.store(input);
+        }
+        String imageUrl = USER_IMAGE_PATH + imageName;
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = userRepository.updateProfileImageUrl(username, imageUrl);
+            userDirectory.evict(username);
+            return count;
+        });
+        if (updated == null || updated == 0) {
+            throw new UserNotFoundException(NO_USER_FOUND_BY_USERNAME + username); // deleted while the image was processed
+        }
+        LOGGER.info("Updated the profile image of user: " + username);
+        return new ProfileImage(imageUrl, USER_IMAGE_PATH + profileImageStore.getThumbnailName(imageName));
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(MetricConstant.USER_LOAD)
+                .description("Latency of loadUserByUsername")
+                .tag(MetricConstant.OUTCOME, outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,85 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.enumeration.Authority;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*  Canonical, interned GrantedAuthority instances.
+ *  There are only a few dozen distinct permissions, so every principal and every token-derived authentication
+ *  shares the same immutable authority objects and the same precomputed, unmodifiable authority lists
+ *  instead of allocating new SimpleGrantedAuthority objects on each call.
+ *  Names only come from the database or from tokens whose signature was already verified.
+ */
+public final class AuthorityRegistry {
+
+    // upper bound for distinct authority combinations, anything beyond that is still correct, just not shared
+    private static final int MAX_AUTHORITY_SETS = 1024;
+
+    private static final ConcurrentMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<List<String>, List<GrantedAuthority>> AUTHORITY_SETS = new ConcurrentHashMap<>();
+    // lookup table from an authority bitmask to its expanded list, every mask is decoded only once
+    private static final ConcurrentMap<Long, List<GrantedAuthority>> AUTHORITIES_BY_MASK = new ConcurrentHashMap<>();
+
+    private AuthorityRegistry() {}
+
+    /**
+     * Gets the canonical instance of an authority
+     * @param name the name of the authority, e.g. user:read
+     * @return the interned authority
+     */
+    public static GrantedAuthority getAuthority(String name) {
+        GrantedAuthority authority = AUTHORITIES.get(name);
+        return authority != null ? authority : AUTHORITIES.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Gets the shared, unmodifiable list of authorities for the given names
+     * @param names the names of the authorities, duplicates are ignored
+     * @return the interned authorities in the given order
+     */
+    public static List<GrantedAuthority> getAuthorities(String... names) {
+        if (names == null || names.length == 0) {
+            return List.of();
+        }
+        // Arrays.asList is only a view used for the lookup, equal to the immutable key stored below
+        List<GrantedAuthority> authorities = AUTHORITY_SETS.get(Arrays.asList(names));
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = createAuthorities(names);
+        if (AUTHORITY_SETS.size() < MAX_AUTHORITY_SETS) {
+            List<GrantedAuthority> existing = AUTHORITY_SETS.putIfAbsent(List.of(names), authorities);
+            return existing != null ? existing : authorities;
+        }
+        return authorities;
+    }
+
+    /**
+     * Gets the shared, unmodifiable list of authorities encoded in a bitmask
+     * @param mask the bitmask over the Authority catalogue
+     * @return the interned authorities in catalogue order
+     */
+    public static List<GrantedAuthority> getAuthorities(long mask) {
+        if (mask == 0) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = AUTHORITIES_BY_MASK.get(mask);
+        return authorities != null ? authorities
+                : AUTHORITIES_BY_MASK.computeIfAbsent(mask, key -> getAuthorities(Authority.toNames(key)));
+    }
+
+    private static List<GrantedAuthority> createAuthorities(String[] names) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (String name : names) {
+            authorities.add(getAuthority(name));
+        }
+        return List.copyOf(authorities);
+    }
+}
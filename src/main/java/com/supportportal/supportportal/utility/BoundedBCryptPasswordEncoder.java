@@ -0,0 +1,137 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.supportportal.supportportal.exception.domain.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.supportportal.supportportal.constant.SecurityConstant.SERVER_BUSY_MESSAGE;
+
+/*  BCrypt encoder whose hashing runs on a dedicated, bounded executor.
+ *  The calling thread still waits for its hash, the pool only caps how many hashes run at once:
+ *  a burst of logins cannot put more than pool-size hashes on the CPUs, and once the queue is full
+ *  the caller is rejected immediately with a PasswordHashingRejectedException instead of waiting behind it.
+ */
+public class BoundedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedBCryptPasswordEncoder.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-P@ssw0rd";
+    private static final int CALIBRATION_STRENGTH = 8;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final int strength;
+    private final ExecutorService executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public BoundedBCryptPasswordEncoder(int strength, ExecutorService executor, MeterRegistry meterRegistry) {
+        super(strength);
+        this.strength = strength;
+        this.executor = executor;
+        this.encodeTimer = bcryptTimer(meterRegistry, "encode");
+        this.matchesTimer = bcryptTimer(meterRegistry, "matches");
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> BoundedBCryptPasswordEncoder.super.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> BoundedBCryptPasswordEncoder.super.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes stored with a lower cost than the calibrated one are re-hashed on the next successful login.
+     * A higher cost is kept: the strength is calibrated per node, two nodes calibrated differently would otherwise
+     * re-hash the same password back and forth
+     * @param encodedPassword the stored hash
+     * @return true if the cost of the hash is below the calibrated strength
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = getCost(encodedPassword);
+        return cost > 0 && cost < strength;
+    }
+
+    /**
+     * Finds the strength whose hashing time is closest to the target latency on this hardware.
+     * Every additional round doubles the work, so one measurement at a low strength is enough to extrapolate
+     * @param targetLatencyMillis the wanted duration of one hash
+     * @param minStrength lower bound, calibration never weakens the hashes below it
+     * @param maxStrength upper bound
+     * @return the calibrated strength
+     */
+    public static int calibrate(long targetLatencyMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        encoder.encode(CALIBRATION_PASSWORD); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            encoder.encode(CALIBRATION_PASSWORD);
+        }
+        double millis = Math.max((System.nanoTime() - start) / 1_000_000.0 / CALIBRATION_ROUNDS, 0.01);
+        int strength = CALIBRATION_STRENGTH + (int) Math.round(Math.log(targetLatencyMillis / millis) / Math.log(2));
+        strength = Math.max(minStrength, Math.min(maxStrength, strength));
+        LOGGER.info("BCrypt calibrated to strength " + strength + " (" + millis + " ms at strength " + CALIBRATION_STRENGTH
+                + ", target " + targetLatencyMillis + " ms)");
+        return strength;
+    }
+
+    private Timer bcryptTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(MetricConstant.BCRYPT)
+                .description("BCrypt hashing time")
+                .tag(MetricConstant.OPERATION, operation)
+                .tag("strength", String.valueOf(strength))
+                .register(meterRegistry);
+    }
+
+    // "$2a$10$..." -> 10, or -1 if the hash is not a BCrypt hash
+    private static int getCost(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char units = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(units)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (units - '0');
+    }
+
+    // The timer measures the hashing itself on the pool thread, time spent in the queue is visible in the executor metrics
+    private <T> T execute(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException exception) {
+            throw new PasswordHashingRejectedException(SERVER_BUSY_MESSAGE);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException(SERVER_BUSY_MESSAGE);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+}
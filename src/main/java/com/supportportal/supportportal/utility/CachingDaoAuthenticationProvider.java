@@ -0,0 +1,44 @@
+package com.supportportal.supportportal.utility;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/*  DaoAuthenticationProvider that answers a repeated username/password check from the VerifiedCredentialCache.
+ *  A hit skips loadUserByUsername, so it neither looks the user up nor records a last login date,
+ *  and it skips the bcrypt comparison. A miss runs the full check and caches it if it succeeds.
+ *  Locked, disabled or re-passworded users are removed from the cache by the UserDirectory eviction.
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    public CachingDaoAuthenticationProvider(UserDetailsService userDetailsService, VerifiedCredentialCache verifiedCredentialCache) {
+        super(userDetailsService);
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!verifiedCredentialCache.isEnabled() || !(authentication.getCredentials() instanceof String password)) {
+            return super.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        UserDetails cachedUser = verifiedCredentialCache.get(username, password);
+        if (cachedUser != null) {
+            // a new token for each request, the cached user is shared
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(cachedUser, password, cachedUser.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        long generation = verifiedCredentialCache.getGeneration();
+        Authentication result = super.authenticate(authentication);
+        if (result.getPrincipal() instanceof UserDetails user) {
+            verifiedCredentialCache.put(username, password, user, generation);
+        }
+        return result;
+    }
+}
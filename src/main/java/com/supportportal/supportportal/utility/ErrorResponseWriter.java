@@ -0,0 +1,152 @@
+package com.supportportal.supportportal.utility;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.supportportal.supportportal.domain.HttpResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*  Writes the HttpResponse error body of the security handlers.
+ *  The JSON of each (status, message) pair is serialized once, through one shared Jackson writer, and kept as the bytes
+ *  before and after the timestamp. A response then only formats the timestamp (at most once per second) and copies bytes.
+ */
+@Component
+public class ErrorResponseWriter {
+
+    // Must match the @JsonFormat of HttpResponse.timeStamp
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("MM-dd-yyyy hh:mm:ss", Locale.ROOT).withZone(ZoneId.of("Europe/Bucharest"));
+    private static final Map<HttpStatus, String> REASONS = new EnumMap<>(HttpStatus.class);
+    private static final int MAX_TEMPLATES = 256; // messages are constants, the bound only protects against a caller passing dynamic ones
+
+    static {
+        for (HttpStatus httpStatus : HttpStatus.values()) {
+            REASONS.put(httpStatus, httpStatus.getReasonPhrase().toUpperCase());
+        }
+    }
+
+    private final ObjectWriter writer;
+    private final byte[] sentinelTimestamp;
+    private final Map<HttpStatus, Map<String, Template>> templates = new ConcurrentHashMap<>();
+    private final AtomicInteger templateCount = new AtomicInteger();
+    private volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, null);
+
+    @Autowired
+    public ErrorResponseWriter(ObjectMapper objectMapper) throws JsonProcessingException {
+        this.writer = objectMapper.writerFor(HttpResponse.class);
+        this.sentinelTimestamp = quote(TIMESTAMP_FORMAT.format(Instant.EPOCH));
+        // fail at startup, not on the first rejected request, if the mapper does not render the timestamp as expected
+        createTemplate(HttpStatus.FORBIDDEN, "");
+    }
+
+    // The reason phrase of a status in upper case, as sent in every HttpResponse
+    public static String reason(HttpStatus httpStatus) {
+        return REASONS.get(httpStatus);
+    }
+
+    // Number of cached (status, message) templates, each was serialized once
+    int getTemplateCount() {
+        return templateCount.get();
+    }
+
+    /**
+     * Writes an error response
+     * @param response the response to write to
+     * @param httpStatus the status of the response
+     * @param message a constant message, sent as is
+     * @throws IOException if the body cannot be written
+     */
+    public void write(HttpServletResponse response, HttpStatus httpStatus, String message) throws IOException {
+        Template template = getTemplate(httpStatus, message);
+        byte[] timestampBytes = currentTimestamp();
+        response.setStatus(httpStatus.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(template.prefix.length + timestampBytes.length + template.suffix.length);
+        OutputStream outputStream = response.getOutputStream();
+        outputStream.write(template.prefix);
+        outputStream.write(timestampBytes);
+        outputStream.write(template.suffix);
+        outputStream.flush();
+    }
+
+    private Template getTemplate(HttpStatus httpStatus, String message) throws JsonProcessingException {
+        Map<String, Template> byMessage = templates.get(httpStatus);
+        Template template = byMessage == null ? null : byMessage.get(message);
+        if (template != null) {
+            return template;
+        }
+        template = createTemplate(httpStatus, message);
+        if (templateCount.get() < MAX_TEMPLATES) {
+            Map<String, Template> cached = templates.computeIfAbsent(httpStatus, status -> new ConcurrentHashMap<>());
+            if (cached.putIfAbsent(message, template) == null) {
+                templateCount.incrementAndGet();
+            }
+        }
+        return template;
+    }
+
+    private Template createTemplate(HttpStatus httpStatus, String message) throws JsonProcessingException {
+        HttpResponse httpResponse = new HttpResponse(httpStatus.value(), httpStatus, reason(httpStatus), message);
+        httpResponse.setTimeStamp(new Date(0));
+        byte[] json = writer.writeValueAsBytes(httpResponse);
+        int start = indexOf(json, sentinelTimestamp);
+        if (start < 0) {
+            throw new IllegalStateException("The timestamp of HttpResponse is not serialized with the expected format");
+        }
+        byte[] prefix = new byte[start];
+        byte[] suffix = new byte[json.length - start - sentinelTimestamp.length];
+        System.arraycopy(json, 0, prefix, 0, prefix.length);
+        System.arraycopy(json, start + sentinelTimestamp.length, suffix, 0, suffix.length);
+        return new Template(prefix, suffix);
+    }
+
+    private byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second != second) {
+            current = new Timestamp(second, quote(TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(second))));
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private static byte[] quote(String value) {
+        return ('"' + value + '"').getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(byte[] array, byte[] target) {
+        outer:
+        for (int i = 0; i <= array.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private record Template(byte[] prefix, byte[] suffix) {
+    }
+
+    private record Timestamp(long second, byte[] bytes) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.supportportal.supportportal.utility;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*  Concurrent loading cache with a time-to-live, a size bound and single-flight loading:
+ *  when many threads ask for the same missing key at once, only one of them runs the loader and the others wait for its result.
+ *  Null values are handed to the waiting threads but never cached.
+ */
+public class ExpiringLoadingCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringLoadingCache(long ttl, TimeUnit unit, int maxSize) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the value from the cache, loading it at most once if it is absent or expired
+     * @param key
+     * @param loader called on a miss, exceptions are rethrown to every waiting caller
+     * @return the cached or loaded value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.future.isDone() || !entry.isExpired(System.nanoTime())) {
+                    hits.increment();
+                    return await(entry.future);
+                }
+                entries.remove(key, entry);
+            }
+            Entry<V> loading = new Entry<>();
+            if (entries.putIfAbsent(key, loading) != null) {
+                continue; // another thread started loading in the meantime
+            }
+            misses.increment();
+            if (entries.size() > maxSize) {
+                evict();
+            }
+            return load(key, loading, loader);
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    // Scans the whole cache, meant for rare writes whose old key is not known
+    public void invalidateIf(Predicate<? super V> predicate) {
+        entries.values().removeIf(entry -> entry.future.isDone() && !entry.future.isCompletedExceptionally()
+                && predicate.test(entry.future.getNow(null)));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public long getTotalLoadTime(TimeUnit unit) {
+        return unit.convert(loadTimeNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public double getAverageLoadTime(TimeUnit unit) {
+        long loadCount = misses.sum();
+        return loadCount == 0 ? 0.0 : (double) getTotalLoadTime(TimeUnit.NANOSECONDS) / loadCount / unit.toNanos(1);
+    }
+
+    private V load(K key, Entry<V> loading, Function<? super K, ? extends V> loader) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error exception) {
+            entries.remove(key, loading);
+            loading.future.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loadTimeNanos.add(System.nanoTime() - start);
+        }
+        loading.expiresAt = System.nanoTime() + ttlNanos;
+        loading.future.complete(value);
+        if (value == null) {
+            entries.remove(key, loading);
+        }
+        return value;
+    }
+
+    // Drops the expired entries first; if the cache is still full, drops arbitrary loaded entries until a tenth of the capacity is free
+    private void evict() {
+        long now = System.nanoTime();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.future.isDone() && entry.isExpired(now)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            if (iterator.next().future.isDone()) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long expiresAt;
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
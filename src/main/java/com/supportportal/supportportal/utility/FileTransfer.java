@@ -0,0 +1,50 @@
+package com.supportportal.supportportal.utility;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*  Sends a file as the response body without reading it into the heap.
+ *  On Tomcat the connector is handed the file and writes it with sendfile once the request has been processed,
+ *  elsewhere the file channel is transferred to the response.
+ */
+public final class FileTransfer {
+
+    // Request attributes of Tomcat's sendfile support (org.apache.tomcat.util.net.Constants / Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileTransfer() {}
+
+    /**
+     * Writes a file as the body of the response, the status and headers must already be set
+     * @param file the file to send
+     * @param request the request, to find out whether the connector supports sendfile
+     * @param response the response
+     * @throws IOException if the file cannot be read or the response cannot be written
+     */
+    public static void send(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentLengthLong(size);
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            for (long position = 0; position < size; ) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+}
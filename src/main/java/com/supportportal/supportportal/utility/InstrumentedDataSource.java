@@ -0,0 +1,131 @@
+package com.supportportal.supportportal.utility;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/*  DataSource that times every statement executed through its connections and reports it to SqlStatistics.
+ *  Connections and statements are wrapped in JDK proxies, unwrap() still reaches the pool and the driver,
+ *  and the DataSource itself is a DelegatingDataSource so the Hikari metrics and health checks find the pool behind it.
+ *  Only the execution is timed: reading a streamed result set is not included.
+ *  close() is passed on, Spring closes the pool through the wrapper when the context shuts down.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements Closeable {
+
+    private final Supplier<SqlStatistics> sqlStatistics;
+    private volatile SqlStatistics resolvedStatistics;
+
+    // The statistics are resolved on the first statement, so the DataSource can be wrapped before that bean exists
+    public InstrumentedDataSource(DataSource targetDataSource, Supplier<SqlStatistics> sqlStatistics) {
+        super(targetDataSource);
+        this.sqlStatistics = sqlStatistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private void record(String sql, long nanos) {
+        SqlStatistics statistics = resolvedStatistics;
+        if (statistics == null) {
+            statistics = sqlStatistics.get();
+            resolvedStatistics = statistics;
+        }
+        statistics.record(sql, nanos);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(connection, method, args);
+            if (!(result instanceof Statement statement)) {
+                return result;
+            }
+            // prepareStatement and prepareCall take the SQL first, createStatement gets it with each execute
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, (Connection) proxy, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Connection connection;
+        private String sql;
+
+        private StatementHandler(Statement statement, Connection connection, String sql) {
+            this.statement = statement;
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1 && sql == null) {
+                sql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return InstrumentedDataSource.invoke(statement, method, args);
+            }
+            String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            long start = System.nanoTime();
+            try {
+                return InstrumentedDataSource.invoke(statement, method, args);
+            } finally {
+                record(executed, System.nanoTime() - start);
+            }
+        }
+    }
+}
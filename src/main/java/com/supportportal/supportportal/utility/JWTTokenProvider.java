@@ -1,34 +1,63 @@
 package com.supportportal.supportportal.utility;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import static com.supportportal.supportportal.constant.SecurityConstant.*;
-import static java.util.Arrays.stream;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.supportportal.supportportal.constant.MetricConstant;
 import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.domain.VerifiedToken;
 import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JWTTokenProvider {
 
-    // Spring will look for jwt.secret in application.yml
-    @Value("${jwt.secret}")
-    private String secret;
+    // Algorithms and verifiers are thread-safe, so they are built once at startup and shared by every request
+    private final Algorithm algorithm;
+    private final String keyId;
+    private final JWTVerifier verifier; // HS512 tokens, which carry no kid
+    private final Map<String, JWTVerifier> verifiersByKeyId; // RS256/ES256 tokens, one verifier per public key
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final Timer verificationTimer;
+
+    // HS512 with the shared secret
+    public JWTTokenProvider(String secret, VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this(JwtSigningKeys.hmac(secret), verifiedTokenCache, meterRegistry);
+    }
+
+    @Autowired
+    public JWTTokenProvider(JwtSigningKeys jwtSigningKeys, VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) {
+        this.algorithm = jwtSigningKeys.getSigningAlgorithm();
+        this.keyId = jwtSigningKeys.getSigningKeyId();
+        this.verifier = keyId == null ? createJWTVerifier(algorithm) : null;
+        Map<String, JWTVerifier> verifiers = new HashMap<>();
+        jwtSigningKeys.getVerificationAlgorithms().forEach((kid, publicKeyAlgorithm) -> verifiers.put(kid, createJWTVerifier(publicKeyAlgorithm)));
+        this.verifiersByKeyId = Map.copyOf(verifiers);
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.verificationTimer = Timer.builder(MetricConstant.JWT_VERIFICATION)
+                .description("Signature verification and claim decoding of tokens that were not cached")
+                .register(meterRegistry);
+    }
 
     /**
      * Generates the actual JWT token
@@ -37,29 +66,50 @@ public class JWTTokenProvider {
      */
     public String generateJwtToken(UserPrincipal userPrincipal){
 
-        String[] claims =  getClaimsFromUser(userPrincipal);
-        return JWT.create()
+        JWTCreator.Builder builder = JWT.create()
                 .withIssuer(GET_ARRAYS_LLC) //the name of the application
                 .withAudience(GET_ARRAYS_ADMINISTRATION)
                 .withIssuedAt(new Date())
                 .withSubject(userPrincipal.getUsername())  // username or user id - should be unique
-                .withArrayClaim(AUTHORITIES, claims) // user's claims
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC512(secret.getBytes()));
+                .withClaim(AUTHORITIES, userPrincipal.getAuthorityMask()) // user's claims, one bitmask over the Authority catalogue
+                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME));
+        // the kid tells the verifiers which public key to use, HS512 tokens have no kid header at all
+        return (keyId == null ? builder : builder.withKeyId(keyId)).sign(algorithm);
     }
 
     /**
-     * Configures the claims for the user
-     * @param userPrincipal the user that has been authenticated
-     * @return an array of permissions
+     * Verifies the signature of the token once and decodes everything the filter needs.
+     * Tokens that were already verified are served from the cache until their exp claim
+     * @param token the JWT token without the "Bearer " prefix
+     * @return the subject, authorities and expiry of the token
+     * @throws JWTVerificationException if the token is invalid or expired
      */
-    private String[] getClaimsFromUser(UserPrincipal userPrincipal) {
+    public VerifiedToken verifyToken(String token){
+        VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+        if(verifiedToken == null){
+            long start = System.nanoTime();
+            try {
+                DecodedJWT decodedJWT = verify(token);
+                verifiedToken = new VerifiedToken(decodedJWT.getSubject(), getAuthorities(decodedJWT), decodedJWT.getExpiresAt());
+            } finally {
+                verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            verifiedTokenCache.put(token, verifiedToken);
+        }
+        return verifiedToken;
+    }
 
-        List<String> authorities = new ArrayList<>();
-        for(GrantedAuthority grantedAuthority : userPrincipal.getAuthorities()){
-            authorities.add(grantedAuthority.getAuthority());
+    // The token is parsed once, its kid picks the verifier
+    private DecodedJWT verify(String token) {
+        if (verifier != null) {
+            return verifier.verify(token);
+        }
+        DecodedJWT decodedJWT = JWT.decode(token);
+        JWTVerifier keyVerifier = decodedJWT.getKeyId() == null ? null : verifiersByKeyId.get(decodedJWT.getKeyId());
+        if (keyVerifier == null) {
+            throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
         }
-       return authorities.toArray(new String[0]);
+        return keyVerifier.verify(decodedJWT);
     }
 
     /**
@@ -68,29 +118,32 @@ public class JWTTokenProvider {
      * @return a list of authorities
      */
     public List<GrantedAuthority> getAuthorities(String token){
-        String[] claims = getClaimsFromToken(token);
-        return stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return verifyToken(token).getAuthorities();
     }
 
     /**
-     * Configures the claims from the token
-     * @param token
-     * @return an array of claims
+     * Maps the authorities claim of an already verified token through the precomputed lookup table
+     * @param decodedJWT
+     * @return a list of authorities
      */
-    private String[] getClaimsFromToken(String token) {
-        JWTVerifier verifier =  getJWTVerifier();
-        // Verify the JWT token and then get the claims
-        return verifier.verify(token).getClaim(AUTHORITIES).asArray(String.class);
+    private List<GrantedAuthority> getAuthorities(DecodedJWT decodedJWT) {
+        Claim claim = decodedJWT.getClaim(AUTHORITIES);
+        Long authorityMask = claim.asLong();
+        if(authorityMask != null){
+            return AuthorityRegistry.getAuthorities(authorityMask.longValue());
+        }
+        // tokens issued before the bitmask encoding carry the authorities as an array of names
+        return AuthorityRegistry.getAuthorities(claim.asArray(String.class));
     }
 
     /**
      * Creates a JWT Verifier passing the Algorithm
+     * @param algorithm
      * @return JWT Verifier
      */
-    private JWTVerifier getJWTVerifier() {
+    private JWTVerifier createJWTVerifier(Algorithm algorithm) {
         JWTVerifier verifier;
         try {
-            Algorithm algorithm = Algorithm.HMAC512(secret);
             verifier = JWT.require(algorithm)
                             .withIssuer(GET_ARRAYS_LLC)
                             .build();
@@ -116,25 +169,22 @@ public class JWTTokenProvider {
     }
 
     /**
-     * Checks if the token is valid
-     * @param username
-     * @param token
+     * Checks if an already verified token is valid
+     * @param verifiedToken
      * @return
      */
-    public boolean isTokenValid(String username, String token){
-        JWTVerifier verifier = getJWTVerifier();
-        return StringUtils.isNotEmpty(username) && !isTokenExpired(verifier, token);
+    public boolean isTokenValid(VerifiedToken verifiedToken){
+        return StringUtils.isNotEmpty(verifiedToken.getSubject()) && !verifiedToken.isExpired();
     }
 
     /**
-     * Checks if the token is expired
-     * @param verifier
+     * Checks if the token is valid
+     * @param username
      * @param token
      * @return
      */
-    private boolean isTokenExpired(JWTVerifier verifier, String token) {
-        Date expiration = verifier.verify(token).getExpiresAt();
-        return expiration.before(new Date());
+    public boolean isTokenValid(String username, String token){
+        return StringUtils.isNotEmpty(username) && !verifyToken(token).isExpired();
     }
 
     /**
@@ -143,7 +193,6 @@ public class JWTTokenProvider {
      * @return
      */
     public String getSubject(String token){
-        JWTVerifier verifier = getJWTVerifier();
-        return verifier.verify(token).getSubject();
+        return verifyToken(token).getSubject();
     }
 }
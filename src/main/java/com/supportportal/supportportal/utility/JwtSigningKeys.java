@@ -0,0 +1,248 @@
+package com.supportportal.supportportal.utility;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/*  The keys tokens are signed and verified with.
+ *  HS512 (the default) uses the shared jwt.secret. RS256 and ES256 read key pairs from jwt.key-directory:
+ *  <kid>.pub holds an X.509 public key and <kid>.key, when present, the PKCS#8 private key, both PEM encoded.
+ *  Every public key verifies the tokens carrying its kid, only jwt.signing-kid (by default the greatest kid with
+ *  a private key) signs new ones. To rotate: add the new pair, sign with it, and drop the old pair once its tokens expired.
+ *  The public keys are published as a JSON Web Key Set so that other nodes can verify tokens without any secret.
+ */
+@Component
+public class JwtSigningKeys {
+
+    public static final String HS512 = "HS512";
+    public static final String RS256 = "RS256";
+    public static final String ES256 = "ES256";
+    private static final String PUBLIC_KEY_SUFFIX = ".pub";
+    private static final String PRIVATE_KEY_SUFFIX = ".key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+    private final String algorithmName;
+    private final Algorithm signingAlgorithm;
+    private final String signingKeyId;
+    private final Map<String, Algorithm> verificationAlgorithms;
+    private final List<Map<String, String>> jsonWebKeys;
+
+    @Autowired
+    public JwtSigningKeys(@Value("${jwt.algorithm:HS512}") String algorithm,
+                          @Value("${jwt.secret}") String secret,
+                          @Value("${jwt.key-directory:}") String keyDirectory,
+                          @Value("${jwt.signing-kid:}") String signingKid) {
+        this(algorithm, secret, HS512.equals(algorithm) ? Map.of() : loadOrGenerate(algorithm, keyDirectory), signingKid);
+    }
+
+    private JwtSigningKeys(String algorithm, String secret, Map<String, KeyPair> keyPairs, String signingKid) {
+        this.algorithmName = algorithm;
+        if (HS512.equals(algorithm)) {
+            this.signingAlgorithm = Algorithm.HMAC512(secret);
+            this.signingKeyId = null;
+            this.verificationAlgorithms = Map.of();
+            this.jsonWebKeys = List.of();
+            return;
+        }
+        Map<String, Algorithm> verification = new LinkedHashMap<>();
+        List<Map<String, String>> keys = new ArrayList<>();
+        String signingCandidate = null;
+        for (Map.Entry<String, KeyPair> entry : new TreeMap<>(keyPairs).entrySet()) {
+            verification.put(entry.getKey(), createAlgorithm(algorithm, entry.getValue().getPublic(), null));
+            keys.add(toJsonWebKey(algorithm, entry.getKey(), entry.getValue().getPublic()));
+            if (entry.getValue().getPrivate() != null) {
+                signingCandidate = entry.getKey();
+            }
+        }
+        String kid = signingKid == null || signingKid.isBlank() ? signingCandidate : signingKid;
+        KeyPair signingPair = kid == null ? null : keyPairs.get(kid);
+        if (signingPair == null || signingPair.getPrivate() == null) {
+            throw new IllegalStateException("No private key to sign " + algorithm + " tokens with kid " + kid);
+        }
+        this.signingAlgorithm = createAlgorithm(algorithm, signingPair.getPublic(), signingPair.getPrivate());
+        this.signingKeyId = kid;
+        this.verificationAlgorithms = Collections.unmodifiableMap(verification);
+        this.jsonWebKeys = List.copyOf(keys);
+        LOGGER.info("Signing " + algorithm + " tokens with kid " + kid + ", verifying kids " + verification.keySet());
+    }
+
+    public static JwtSigningKeys hmac(String secret) {
+        return new JwtSigningKeys(HS512, secret, Map.of(), null);
+    }
+
+    /**
+     * Creates RS256 or ES256 keys from key pairs, a pair without a private key only verifies
+     * @param algorithm RS256 or ES256
+     * @param keyPairs the key pairs by kid
+     * @param signingKid the kid of the pair that signs, null for the greatest kid with a private key
+     * @return the keys
+     */
+    public static JwtSigningKeys asymmetric(String algorithm, Map<String, KeyPair> keyPairs, String signingKid) {
+        return new JwtSigningKeys(algorithm, null, keyPairs, signingKid);
+    }
+
+    // A new key pair of the right type for the algorithm: 2048-bit RSA or P-256
+    public static KeyPair generateKeyPair(String algorithm) {
+        try {
+            if (RS256.equals(algorithm)) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                return generator.generateKeyPair();
+            }
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException("Cannot generate a " + algorithm + " key pair", exception);
+        }
+    }
+
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    public Algorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    // null for HS512, whose tokens carry no kid
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    // The public keys by kid, empty for HS512
+    public Map<String, Algorithm> getVerificationAlgorithms() {
+        return verificationAlgorithms;
+    }
+
+    // The public keys in JWK form, never the HS512 secret
+    public List<Map<String, String>> getJsonWebKeys() {
+        return jsonWebKeys;
+    }
+
+    private static Algorithm createAlgorithm(String algorithm, PublicKey publicKey, PrivateKey privateKey) {
+        return switch (algorithm) {
+            case RS256 -> Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+            case ES256 -> Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+            default -> throw new IllegalArgumentException("Unsupported jwt.algorithm: " + algorithm);
+        };
+    }
+
+    private static Map<String, String> toJsonWebKey(String algorithm, String kid, PublicKey publicKey) {
+        Map<String, String> jsonWebKey = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey rsaPublicKey) {
+            jsonWebKey.put("kty", "RSA");
+            jsonWebKey.put("n", base64Url(rsaPublicKey.getModulus(), 0));
+            jsonWebKey.put("e", base64Url(rsaPublicKey.getPublicExponent(), 0));
+        } else {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            jsonWebKey.put("kty", "EC");
+            jsonWebKey.put("crv", "P-256");
+            jsonWebKey.put("x", base64Url(ecPublicKey.getW().getAffineX(), 32));
+            jsonWebKey.put("y", base64Url(ecPublicKey.getW().getAffineY(), 32));
+        }
+        jsonWebKey.put("kid", kid);
+        jsonWebKey.put("use", "sig");
+        jsonWebKey.put("alg", algorithm);
+        return jsonWebKey;
+    }
+
+    // Unsigned big-endian bytes, left-padded to length when it is not 0
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] unsigned = new byte[size];
+        System.arraycopy(bytes, start, unsigned, size - (bytes.length - start), bytes.length - start);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private static Map<String, KeyPair> loadOrGenerate(String algorithm, String keyDirectory) {
+        if (!RS256.equals(algorithm) && !ES256.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported jwt.algorithm: " + algorithm);
+        }
+        if (keyDirectory == null || keyDirectory.isBlank()) {
+            // only usable on a single node: the key changes on every restart and other nodes cannot know it beforehand
+            String kid = "ephemeral-" + UUID.randomUUID();
+            LOGGER.warn("No jwt.key-directory configured, signing " + algorithm + " tokens with the generated key " + kid);
+            return Map.of(kid, generateKeyPair(algorithm));
+        }
+        try {
+            return loadKeyPairs(algorithm, Path.of(keyDirectory));
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Cannot read the JWT keys in " + keyDirectory, exception);
+        }
+    }
+
+    private static Map<String, KeyPair> loadKeyPairs(String algorithm, Path directory) throws IOException {
+        KeyFactory keyFactory;
+        try {
+            keyFactory = KeyFactory.getInstance(RS256.equals(algorithm) ? "RSA" : "EC");
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+        Map<String, KeyPair> keyPairs = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + PUBLIC_KEY_SUFFIX)) {
+            for (Path publicKeyFile : files) {
+                String fileName = publicKeyFile.getFileName().toString();
+                String kid = fileName.substring(0, fileName.length() - PUBLIC_KEY_SUFFIX.length());
+                Path privateKeyFile = directory.resolve(kid + PRIVATE_KEY_SUFFIX);
+                try {
+                    PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(readPem(publicKeyFile)));
+                    PrivateKey privateKey = Files.exists(privateKeyFile)
+                            ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(privateKeyFile))) : null;
+                    keyPairs.put(kid, new KeyPair(publicKey, privateKey));
+                } catch (GeneralSecurityException exception) {
+                    throw new IllegalStateException("Invalid " + algorithm + " key " + kid, exception);
+                }
+            }
+        }
+        if (keyPairs.isEmpty()) {
+            throw new IllegalStateException("No *" + PUBLIC_KEY_SUFFIX + " key in " + directory);
+        }
+        return keyPairs;
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        StringBuilder base64 = new StringBuilder();
+        for (String line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+            if (!line.startsWith("-----")) {
+                base64.append(line.trim());
+            }
+        }
+        return Base64.getDecoder().decode(base64.toString());
+    }
+}
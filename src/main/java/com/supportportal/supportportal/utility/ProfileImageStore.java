@@ -0,0 +1,181 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.supportportal.supportportal.constant.FileConstant.*;
+
+/*  Profile images on local disk, named after the SHA-256 of their content.
+ *  The same picture uploaded twice is stored once, and a name always designates the same bytes, which makes the
+ *  images safe to cache forever. Each image gets one square JPEG thumbnail, written next to it the first time.
+ */
+@Component
+public class ProfileImageStore {
+
+    // <sha-256>.<extension> for an image, <sha-256>-<size>.jpg for its thumbnail, nothing else can be resolved
+    private static final Pattern IMAGE_NAME = Pattern.compile("([0-9a-f]{64})(?:-(\\d+))?\\.(jpg|png|gif)");
+
+    private final Path directory;
+    private final int thumbnailSize;
+    private final int maxDimension;
+
+    @Autowired
+    public ProfileImageStore(@Value("${image.directory:${user.home}/supportportal/images}") String directory,
+                             @Value("${image.thumbnail-size:128}") int thumbnailSize,
+                             @Value("${image.max-dimension:4096}") int maxDimension) throws IOException {
+        this.directory = Files.createDirectories(Path.of(directory).toAbsolutePath());
+        this.thumbnailSize = thumbnailSize;
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Stores an uploaded image and its thumbnail
+     * @param input the uploaded bytes
+     * @return the name of the image
+     * @throws NotAnImageFileException if the upload is not a JPEG, PNG or GIF image within the maximum dimensions
+     * @throws IOException if the image cannot be written
+     */
+    public String store(InputStream input) throws NotAnImageFileException, IOException {
+        Path upload = Files.createTempFile(directory, "upload-", TEMP_FILE_SUFFIX);
+        try {
+            MessageDigest digest = newDigest();
+            try (DigestInputStream digestInput = new DigestInputStream(input, digest)) {
+                Files.copy(digestInput, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + detectExtension(upload);
+            Path image = directory.resolve(name);
+            if (!Files.exists(image)) {
+                Files.move(upload, image, StandardCopyOption.ATOMIC_MOVE);
+            }
+            createThumbnail(image, directory.resolve(getThumbnailName(name)));
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    // The name of the thumbnail of an image
+    public String getThumbnailName(String imageName) {
+        return imageName.substring(0, imageName.indexOf('.')) + "-" + thumbnailSize + "." + JPG_EXTENSION;
+    }
+
+    /**
+     * Resolves the file of an image or thumbnail, a missing thumbnail of an existing image is created on the way
+     * @param name the name of the image or thumbnail
+     * @return the file, or null if the name is not one of the store's names or there is no such image
+     * @throws IOException if a missing thumbnail cannot be created
+     */
+    public Path resolve(String name) throws IOException {
+        Matcher matcher = IMAGE_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        Path file = directory.resolve(name);
+        if (Files.exists(file)) {
+            return file;
+        }
+        if (matcher.group(2) == null || Integer.parseInt(matcher.group(2)) != thumbnailSize) {
+            return null;
+        }
+        for (String extension : new String[]{JPG_EXTENSION, PNG_EXTENSION, GIF_EXTENSION}) {
+            Path image = directory.resolve(matcher.group(1) + "." + extension);
+            if (Files.exists(image)) {
+                createThumbnail(image, file);
+                return file;
+            }
+        }
+        return null;
+    }
+
+    // Reads only the header: the format and the dimensions are checked before anything is decoded
+    private String detectExtension(Path upload) throws NotAnImageFileException, IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(upload.toFile())) {
+            Iterator<ImageReader> readers = imageInput == null ? null : ImageIO.getImageReaders(imageInput);
+            if (readers == null || !readers.hasNext()) {
+                throw new NotAnImageFileException(NOT_AN_IMAGE_FILE);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                String extension = switch (reader.getFormatName().toLowerCase(Locale.ROOT)) {
+                    case "jpeg", "jpg" -> JPG_EXTENSION;
+                    case "png" -> PNG_EXTENSION;
+                    case "gif" -> GIF_EXTENSION;
+                    default -> throw new NotAnImageFileException(NOT_AN_IMAGE_FILE);
+                };
+                if (reader.getWidth(0) > maxDimension || reader.getHeight(0) > maxDimension) {
+                    throw new NotAnImageFileException(String.format(IMAGE_TOO_LARGE, maxDimension, maxDimension));
+                }
+                return extension;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IIOException exception) {
+            throw new NotAnImageFileException(NOT_AN_IMAGE_FILE);
+        }
+    }
+
+    // Scales the image to cover the square, crops the center and writes it through a temporary file
+    private void createThumbnail(Path image, Path thumbnail) throws IOException {
+        if (Files.exists(thumbnail)) {
+            return;
+        }
+        BufferedImage source = ImageIO.read(image.toFile());
+        if (source == null) {
+            throw new IOException("Cannot decode " + image.getFileName());
+        }
+        double scale = Math.max((double) thumbnailSize / source.getWidth(), (double) thumbnailSize / source.getHeight());
+        int width = (int) Math.ceil(source.getWidth() * scale);
+        int height = (int) Math.ceil(source.getHeight() * scale);
+        BufferedImage target = new BufferedImage(thumbnailSize, thumbnailSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE); // JPEG has no transparency
+            graphics.fillRect(0, 0, thumbnailSize, thumbnailSize);
+            graphics.drawImage(source, (thumbnailSize - width) / 2, (thumbnailSize - height) / 2, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        Path temporary = Files.createTempFile(directory, "thumbnail-", TEMP_FILE_SUFFIX);
+        try {
+            ImageIO.write(target, JPG_EXTENSION, temporary.toFile());
+            Files.move(temporary, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*  Read/write split over one primary and several replica pools.
+ *  The connection is held back until its first statement, by then the transaction manager has marked a read-only transaction
+ *  and the connection is taken from a replica instead of the primary. Everything else, writes included, uses the primary.
+ *  Replicas are used in turn, skipping those more than max-lag seconds behind, as measured every lag-check-interval;
+ *  with no replica in sync reads fall back to the primary.
+ *  Users pinned by ReadYourWrites, the ones recently changed and the callers who changed them, read from the primary,
+ *  so a change never seems to vanish and a stale row is never cached again after its eviction.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARY = "primary";
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final ReadYourWrites readYourWrites;
+    private final Map<String, AtomicLong> reads = new LinkedHashMap<>();
+    private final Map<String, Double> lags = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+    private volatile List<String> inSync = List.of(); // reads stay on the primary until the first lag check
+
+    /**
+     * @param primary the pool of the primary, used for writes and for reads outside read-only transactions
+     * @param replicas the replica pools by name
+     * @param maxLagSeconds the replication lag above which a replica stops serving reads
+     * @param lagQuery returns the lag in seconds, in a Seconds_Behind_Source column or in the first column
+     * @param lagCheckIntervalMillis the delay between two lag checks
+     * @param readYourWrites the users whose reads go to the primary
+     */
+    public ReadWriteRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas, long maxLagSeconds,
+                                      String lagQuery, long lagCheckIntervalMillis, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replicas = Map.copyOf(replicas);
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        reads.put(PRIMARY, new AtomicLong());
+        replicas.keySet().forEach(name -> reads.put(name, new AtomicLong()));
+        ReplicaRouter router = new ReplicaRouter();
+        router.setTargetDataSources(targets);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setTargetDataSource(new WriteTrackingDataSource(primary));
+        setReadOnlyDataSource(router);
+        afterPropertiesSet();
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, lagCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Per-pool Hikari meters for the replicas (the primary is bound by Spring Boot), read counts and lag per pool
+    public void bindTo(MeterRegistry registry) {
+        Stream.concat(Stream.of(primary), replicas.values().stream())
+                .filter(pool -> pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null)
+                .forEach(pool -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        reads.forEach((name, count) -> FunctionCounter.builder(MetricConstant.DATASOURCE_READS, count, AtomicLong::get)
+                .description("Connections of read-only transactions, by the pool that served them")
+                .tag(MetricConstant.POOL, name).register(registry));
+        replicas.keySet().forEach(name -> Gauge.builder(MetricConstant.DATASOURCE_REPLICA_LAG, lags, lag -> lag.getOrDefault(name, Double.NaN))
+                .tag(MetricConstant.POOL, name).baseUnit("seconds").register(registry));
+    }
+
+    public List<String> getReplicasInSync() {
+        return inSync;
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    void checkLag() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        for (Map.Entry<String, HikariDataSource> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            double lag = measureLag(name, replica.getValue());
+            Double previous = lags.put(name, lag);
+            boolean wasInSync = previous != null && previous <= maxLagSeconds;
+            boolean isInSync = lag <= maxLagSeconds; // false for NaN, an unknown lag
+            if (isInSync) {
+                healthy.add(name);
+            }
+            if (isInSync && !wasInSync) {
+                LOGGER.info("Replica " + name + " serves reads, " + lag + " s behind the primary");
+            } else if (!isInSync && (wasInSync || previous == null)) {
+                LOGGER.warn("Replica " + name + " does not serve reads, " + (Double.isNaN(lag) ? "lag unknown" : lag + " s behind the primary"));
+            }
+        }
+        inSync = List.copyOf(healthy);
+        readYourWrites.removeExpired();
+    }
+
+    private double measureLag(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return Double.NaN; // SHOW REPLICA STATUS returns no row when the server is not replicating
+            }
+            Object lag = resultSet.getObject(lagColumn(resultSet.getMetaData()));
+            return lag == null ? Double.NaN : Double.parseDouble(lag.toString());
+        } catch (SQLException | NumberFormatException exception) {
+            LOGGER.debug("Could not measure the lag of replica " + name, exception);
+            return Double.NaN;
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            for (String name : LAG_COLUMNS) {
+                if (name.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+                    return column;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private String chooseReadPool() {
+        List<String> candidates = inSync;
+        if (candidates.isEmpty() || readYourWrites.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    // Picks the pool of a read-only transaction
+    private final class ReplicaRouter extends AbstractRoutingDataSource {
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            String pool = chooseReadPool();
+            reads.get(pool).incrementAndGet();
+            return pool;
+        }
+    }
+
+    // Primary connections of a read-write transaction pin their caller, the users written are pinned by the writers
+    private final class WriteTrackingDataSource extends DelegatingDataSource {
+
+        private WriteTrackingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (TransactionSynchronizationManager.isSynchronizationActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                readYourWrites.pin(ReadYourWrites.currentUsername());
+            }
+            return super.getConnection();
+        }
+    }
+}
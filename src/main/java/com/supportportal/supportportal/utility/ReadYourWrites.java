@@ -0,0 +1,113 @@
+package com.supportportal.supportportal.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*  Users whose row changed recently. Their reads go to the primary until the replicas have caught up,
+ *  see ReadWriteRoutingDataSource. The user that changed is pinned, whoever made the change: an import, a password re-hash
+ *  during a login or an administrator's update pin the users they write. The caller of a write is pinned as well.
+ *  A lookup by username names the user it reads, since before authentication there is no principal to go by.
+ *  Without replicas nothing is pinned.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> lookedUpUser = new ThreadLocal<>();
+
+    public ReadYourWrites(@Value("${replicas.enabled:false}") boolean replicasEnabled,
+                          @Value("${replicas.urls:}") List<String> replicaUrls,
+                          @Value("${replicas.read-your-writes:10000}") long windowMillis) {
+        this.enabled = replicasEnabled && !replicaUrls.isEmpty() && windowMillis > 0;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Sends the reads of a user to the primary for the read-your-writes window.
+     * Inside a transaction the window starts again when it commits, the replicas cannot have the change before
+     * @param username the user that was changed
+     */
+    public void pin(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        pinNow(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinNow(username);
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs a lookup of one user, its connection comes from the primary while that user is pinned
+     * @param username the user looked up
+     * @param lookup the query, run on the calling thread
+     */
+    public <T> T lookUp(String username, Supplier<T> lookup) {
+        String previous = lookedUpUser.get();
+        lookedUpUser.set(username);
+        try {
+            return lookup.get();
+        } finally {
+            if (previous == null) {
+                lookedUpUser.remove();
+            } else {
+                lookedUpUser.set(previous);
+            }
+        }
+    }
+
+    // Whether a read-only transaction starting on this thread must read from the primary
+    public boolean isPrimaryRequired() {
+        return enabled && (isPinned(lookedUpUser.get()) || isPinned(currentUsername()));
+    }
+
+    public boolean isPinned(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(username);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            pinnedUntil.remove(username, until);
+            return false;
+        }
+        return true;
+    }
+
+    // Called with the replica lag checks
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until < now);
+    }
+
+    public static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private void pinNow(String username) {
+        pinnedUntil.put(username, System.currentTimeMillis() + windowMillis);
+    }
+}
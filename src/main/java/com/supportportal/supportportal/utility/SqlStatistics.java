@@ -0,0 +1,127 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*  Statement statistics collected by InstrumentedDataSource, replacing show-sql.
+ *  Every statement is timed, only the slow ones and a small sample of the others are logged.
+ *  Between begin() and end() (SqlStatisticsFilter) the statements of the current thread are counted per HTTP request,
+ *  and a statement repeated many times within one request is reported as a likely N+1 query.
+ */
+@Component
+public class SqlStatistics {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final ThreadLocal<RequestStatistics> currentRequest = new ThreadLocal<>();
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int repeatThreshold;
+    private final MeterRegistry meterRegistry;
+    private final Timer statementTimer;
+    private final Counter slowCounter;
+
+    @Autowired
+    public SqlStatistics(@Value("${sql.statistics.enabled:true}") boolean enabled,
+                         @Value("${sql.statistics.slow-threshold:100}") long slowThresholdMillis,
+                         @Value("${sql.statistics.sample-rate:0.001}") double sampleRate,
+                         @Value("${sql.statistics.repeat-threshold:10}") int repeatThreshold,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.sampleRate = sampleRate;
+        this.repeatThreshold = repeatThreshold;
+        this.meterRegistry = meterRegistry;
+        this.statementTimer = Timer.builder(MetricConstant.SQL_STATEMENTS)
+                .description("JDBC statement execution time")
+                .register(meterRegistry);
+        this.slowCounter = Counter.builder(MetricConstant.SQL_SLOW)
+                .description("Statements slower than sql.statistics.slow-threshold")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts counting the statements of the current thread
+     * @param description how the request appears in the log, such as "GET /user/list"
+     */
+    public void begin(String description) {
+        currentRequest.set(new RequestStatistics(description));
+    }
+
+    /**
+     * Stops counting, records the request meters and reports the repeated statements
+     * @param method the HTTP method
+     * @param uri the matched handler pattern, a bounded set of values
+     */
+    public void end(String method, String uri) {
+        RequestStatistics request = currentRequest.get();
+        if (request == null) {
+            return;
+        }
+        currentRequest.remove();
+        DistributionSummary.builder(MetricConstant.SQL_REQUEST_QUERIES)
+                .tags(MetricConstant.METHOD, method, MetricConstant.URI, uri)
+                .register(meterRegistry).record(request.statements);
+        Timer.builder(MetricConstant.SQL_REQUEST_TIME)
+                .tags(MetricConstant.METHOD, method, MetricConstant.URI, uri)
+                .register(meterRegistry).record(request.nanos, TimeUnit.NANOSECONDS);
+        for (Map.Entry<String, Integer> statement : request.executions.entrySet()) {
+            if (statement.getValue() >= repeatThreshold) {
+                Counter.builder(MetricConstant.SQL_REPEATED)
+                        .tags(MetricConstant.METHOD, method, MetricConstant.URI, uri)
+                        .register(meterRegistry).increment();
+                LOGGER.warn("Possible N+1 query, executed " + statement.getValue() + " times by " + request.description + ": " + statement.getKey());
+            }
+        }
+    }
+
+    // Called by InstrumentedDataSource after every execute, executeQuery, executeUpdate and executeBatch
+    void record(String sql, long nanos) {
+        statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestStatistics request = currentRequest.get();
+        if (request != null) {
+            request.statements++;
+            request.nanos += nanos;
+            request.executions.merge(sql, 1, Integer::sum);
+        }
+        if (nanos >= slowThresholdNanos) {
+            slowCounter.increment();
+            LOGGER.warn("Slow statement, " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms" + by(request) + ": " + sql);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            LOGGER.info("Sampled statement, " + TimeUnit.NANOSECONDS.toMicros(nanos) + " us" + by(request) + ": " + sql);
+        }
+    }
+
+    private static String by(RequestStatistics request) {
+        return request == null ? "" : " by " + request.description;
+    }
+
+    private static final class RequestStatistics {
+
+        private final String description;
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int statements;
+        private long nanos;
+
+        private RequestStatistics(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.supportportal.supportportal.utility;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*  Fixed-size, lock-free table of token buckets.
+ *  Each cell holds a single long, the time at which its bucket is full again (the GCRA form of a token bucket),
+ *  updated with a CAS. A key is hashed to two cells with a per-process seed and is only limited when both are empty,
+ *  so sharing one cell with a busy key does not lock a user out. Memory never grows with the number of keys
+ *  and nothing has to expire: a cell that has not been charged for a while is simply full again.
+ */
+public class TokenBucketTable {
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+    private final long interval; // nanoseconds to earn one token back
+    private final long tolerance; // how far ahead of now a cell may run before its bucket is empty
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final long origin = System.nanoTime();
+
+    /**
+     * @param cells the number of cells, rounded up to a power of two
+     * @param tokensPerMinute the rate at which a bucket refills
+     * @param burst the capacity of a bucket
+     */
+    public TokenBucketTable(int cells, int tokensPerMinute, int burst) {
+        int size = Integer.highestOneBit(Math.max(2, cells - 1)) << 1;
+        this.cells = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.interval = NANOS_PER_MINUTE / Math.max(1, tokensPerMinute);
+        this.tolerance = interval * Math.max(0, burst - 1);
+    }
+
+    /**
+     * Checks a key without taking a token
+     * @param key the key of the bucket
+     * @return 0 if the key has a token left, otherwise the nanoseconds until it gets one back
+     */
+    public long getWaitNanos(String key) {
+        return getWaitNanos(key, now());
+    }
+
+    // Takes a token from the key's bucket, called once the attempt has turned out to count against the key
+    public void consume(String key) {
+        consume(key, now());
+    }
+
+    public int getCellCount() {
+        return cells.length();
+    }
+
+    long getWaitNanos(String key, long now) {
+        long hash = hash(key);
+        return Math.min(waitNanos((int) hash & mask, now), waitNanos((int) (hash >>> 32) & mask, now));
+    }
+
+    void consume(String key, long now) {
+        long hash = hash(key);
+        charge((int) hash & mask, now);
+        charge((int) (hash >>> 32) & mask, now);
+    }
+
+    private long waitNanos(int cell, long now) {
+        return Math.max(0, cells.get(cell) - tolerance - now);
+    }
+
+    private void charge(int cell, long now) {
+        long full;
+        do {
+            full = cells.get(cell);
+        } while (!cells.compareAndSet(cell, full, Math.max(full, now) + interval));
+    }
+
+    // 0 is an empty cell, so the clock starts above 0
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    // Seeded FNV-1a with a final mix: String.hashCode collisions are trivial to craft, these ones cannot be precomputed
+    private long hash(String key) {
+        long hash = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
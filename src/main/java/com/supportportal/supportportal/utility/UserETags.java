@@ -0,0 +1,48 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.domain.UserSummary;
+import com.supportportal.supportportal.domain.UserVersion;
+
+import java.util.List;
+
+/*  ETags of the user read endpoints, derived from the version column only, so a 304 needs neither the entity nor serialization.
+ *  A page tag hashes the ids and versions of its users: an update, an insert or a delete within the page changes it
+ */
+public final class UserETags {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private UserETags() {
+    }
+
+    public static String of(UserVersion user) {
+        return "\"" + user.id() + "-" + user.version() + "\"";
+    }
+
+    public static String of(UserSummary user) {
+        return of(new UserVersion(user.id(), user.version()));
+    }
+
+    public static String ofPage(List<UserVersion> users) {
+        long hash = FNV_OFFSET_BASIS;
+        for (UserVersion user : users) {
+            hash = hash(hash, user.id());
+            hash = hash(hash, user.version());
+        }
+        return "\"p" + users.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    public static String ofSummaries(List<UserSummary> users) {
+        return ofPage(users.stream().map(user -> new UserVersion(user.id(), user.version())).toList());
+    }
+
+    // FNV-1a over the 8 bytes of the value
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
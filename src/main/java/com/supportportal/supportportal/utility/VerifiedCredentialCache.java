@@ -0,0 +1,170 @@
+package com.supportportal.supportportal.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  Short-lived cache of successful username/password checks.
+ *  Service integrations send the same HTTP Basic credentials on every call, so a hit skips the user lookup and the bcrypt comparison.
+ *  The password is never kept: an entry holds an HMAC-SHA256 of the username and password under a random key drawn at startup,
+ *  which cannot be brute-forced offline from a heap dump like a plain fast hash could.
+ *  Each username keeps one entry, replaced by its latest successful check. Failed checks are never cached.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Mac macPrototype; // cloned for each digest, like the MessageDigest of VerifiedTokenCache
+    private final Map<String, Entry> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedCredentialCache(@Value("${login.credential-cache.enabled:true}") boolean enabled,
+                                   @Value("${login.credential-cache.ttl:30000}") long ttl,
+                                   @Value("${login.credential-cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled && ttl > 0 && maxSize > 0;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(this.enabled ? Math.min(maxSize, 1024) : 0);
+        this.macPrototype = newMac();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the user of a successful check of the same credentials
+     * @param username the presented username
+     * @param password the presented password
+     * @return the user as loaded by that check, or null if there was none within the time-to-live
+     */
+    public UserDetails get(String username, String password) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(username, entry);
+            misses.increment();
+            return null;
+        }
+        if (!MessageDigest.isEqual(entry.digest, digest(username, password))) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.user;
+    }
+
+    // Read before loading the user, and given back to put
+    public long getGeneration() {
+        return invalidations.get();
+    }
+
+    /**
+     * Stores a successful check
+     * @param generation the getGeneration() read before the user was loaded: if any entry was invalidated since,
+     *                   the user may be stale and nothing is stored
+     */
+    public void put(String username, String password, UserDetails user, long generation) {
+        if (!enabled) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        Entry entry = new Entry(digest(username, password), user, System.nanoTime() + ttlNanos);
+        entries.put(username, entry);
+        // checked after the put: an invalidation running concurrently either sees the entry or is seen here
+        if (invalidations.get() != generation) {
+            entries.remove(username, entry);
+        }
+    }
+
+    public void invalidate(String username) {
+        invalidations.incrementAndGet();
+        entries.remove(username);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Drops the expired entries first; if the cache is still full, drops arbitrary entries until a tenth of the capacity is free
+    private void evict() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private byte[] digest(String username, String password) {
+        Mac mac = cloneMac();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0); // separates the username from the password, "ab" + "c" and "a" + "bc" differ
+        return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac cloneMac() {
+        try {
+            return (Mac) macPrototype.clone();
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Mac newMac() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private record Entry(byte[] digest, UserDetails user, long expiresAt) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.domain.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*  Size-bounded cache of already verified tokens.
+ *  Clients reuse the same bearer token for thousands of calls, so a hit skips the HMAC512 check and the claim decoding.
+ *  Entries are keyed by a SHA-256 digest of the token (the raw token is never kept) and never outlive the token's exp claim.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    // cloned for each digest instead of kept in a ThreadLocal, which would create one instance per virtual thread
+    private static final MessageDigest DIGEST_PROTOTYPE = newDigest();
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Map<String, VerifiedToken> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.enabled = enabled && maxSize > 0;
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(this.enabled ? Math.min(maxSize, 1024) : 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets a verified token from the cache
+     * @param token the JWT token without the "Bearer " prefix
+     * @return the cached verification result or null if it is absent or the token has expired in the meantime
+     */
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        String key = digest(token);
+        VerifiedToken verifiedToken = entries.get(key);
+        if (verifiedToken == null) {
+            misses.increment();
+            return null;
+        }
+        if (verifiedToken.isExpired()) {
+            // expired tokens must go through the verifier again so that the caller gets the TokenExpiredException
+            entries.remove(key, verifiedToken);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return verifiedToken;
+    }
+
+    /**
+     * Stores the result of a successful verification
+     * @param token the JWT token without the "Bearer " prefix
+     * @param verifiedToken the verification result
+     */
+    public void put(String token, VerifiedToken verifiedToken) {
+        if (!enabled || verifiedToken.getExpiresAt() == null || verifiedToken.isExpired()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), verifiedToken);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    // Drops the expired tokens first; if the cache is still full, drops arbitrary entries until a tenth of the capacity is free
+    private void evict() {
+        entries.values().removeIf(VerifiedToken::isExpired);
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest messageDigest = cloneDigest();
+        byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        // one char per byte keeps the key compact and makes equals/hashCode cheap
+        return new String(hash, StandardCharsets.ISO_8859_1);
+    }
+
+    private static MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) DIGEST_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException exception) {
+            return newDigest();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- The user table as Hibernate creates it from the User entity (ddl-auto: create, MySQL dialect).
+-- A schema created that way is adopted as this version by spring.flyway.baseline-on-migrate.
+create table user (
+    id bigint not null auto_increment,
+    user_id varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    profile_image_url varchar(255),
+    username varchar(255),
+    password varchar(255),
+    last_login_date datetime(6),
+    last_login_date_display datetime(6),
+    join_date datetime(6),
+    role_mask bigint not null,
+    authority_mask bigint not null,
+    is_active bit not null,
+    is_not_locked bit not null,
+    primary key (id),
+    constraint ux_user_username unique (username),
+    constraint ux_user_email unique (email),
+    constraint ux_user_user_id unique (user_id)
+) engine=InnoDB;
@@ -0,0 +1,2 @@
+-- Optimistic locking and ETag version of User, incremented by every update
+alter table user add column version bigint not null default 0;
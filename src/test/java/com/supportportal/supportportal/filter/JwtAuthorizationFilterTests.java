@@ -0,0 +1,77 @@
+package com.supportportal.supportportal.filter;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthorizationFilterTests {
+
+	private final JWTTokenProvider jwtTokenProvider = mock(JWTTokenProvider.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final JwtAuthorizationFilter filter = new JwtAuthorizationFilter(jwtTokenProvider, meterRegistry);
+
+	private double noTokenCount() {
+		return meterRegistry.get("supportportal.jwt.filter").tag("outcome", "no_token").timer().count();
+	}
+
+	@Test
+	void publicPathsWithoutATokenSkipTheFilter() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertEquals(0, noTokenCount());
+		verifyNoInteractions(jwtTokenProvider);
+	}
+
+	// PUBLIC_URLS is "**", it covers every path the chain does not match first, however many segments it has
+	@Test
+	void publicUrlsWithoutATokenSkipTheFilter() throws Exception {
+		for (String path : new String[]{"/user/register", "/user/image/profile.png", "/home"}) {
+			MockFilterChain chain = new MockFilterChain();
+			filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), chain);
+
+			assertNotNull(chain.getRequest());
+		}
+		assertEquals(0, noTokenCount());
+	}
+
+	// The chain requires a login for them before it gets to PUBLIC_URLS
+	@Test
+	void adminAndLookupUrlsWithoutATokenGoThroughTheFilter() throws Exception {
+		for (String path : new String[]{"/user/list", "/search", "/user/find/john"}) {
+			filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), new MockFilterChain());
+		}
+		assertEquals(3, noTokenCount());
+		verifyNoInteractions(jwtTokenProvider);
+	}
+
+	@Test
+	void preflightsSkipTheFilter() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/user/list");
+		request.addHeader(HttpHeaders.ORIGIN, "https://portal.example.com");
+		request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET");
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertEquals(0, noTokenCount());
+	}
+
+	@Test
+	void aTokenOnAPublicPathIsStillVerified() {
+		when(jwtTokenProvider.verifyToken("forged")).thenThrow(new JWTVerificationException("bad signature"));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer forged");
+
+		assertThrows(JWTVerificationException.class, () -> filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain()));
+	}
+}
@@ -0,0 +1,96 @@
+package com.supportportal.supportportal.load;
+
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.enumeration.Authority;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/*  Synthetic user population, written straight into the user table with JDBC batches.
+ *  User n is user<n> with the e-mail user<n>@example.com, every 100th user is an admin.
+ *  All users share one password hash, so a million rows cost a single bcrypt.
+ *  Names come from short lists, type-ahead searches find many matches as they would in a real directory.
+ */
+final class SyntheticUsers {
+
+	static final String PASSWORD = "P@ssw0rd-load";
+
+	private static final String INSERT_USER = "INSERT INTO user (user_id, first_name, last_name, email, profile_image_url, " +
+			"username, password, join_date, role_mask, authority_mask, is_active, is_not_locked, version) " +
+			"VALUES (?, ?, ?, ?, NULL, ?, ?, ?, ?, ?, TRUE, TRUE, 0)";
+	private static final int BATCH_SIZE = 10_000;
+	private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+			"William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen"};
+	private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+			"Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"};
+	private static final long USER_ROLES = Authority.toMask("ROLE_USER");
+	private static final long USER_AUTHORITIES = Authority.toMask("user:read");
+	private static final long ADMIN_ROLES = Authority.toMask("ROLE_ADMIN");
+	private static final long ADMIN_AUTHORITIES = Authority.toMask("user:read", "user:create", "user:update", "user:delete");
+
+	private SyntheticUsers() {}
+
+	static String username(int index) {
+		return "user" + index;
+	}
+
+	static boolean isAdmin(int index) {
+		return index % 100 == 0;
+	}
+
+	static String firstName(int index) {
+		return FIRST_NAMES[index % FIRST_NAMES.length];
+	}
+
+	static String lastName(int index) {
+		return LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+	}
+
+	// The user as the application would load it, to sign its tokens
+	static User user(int index) {
+		User user = new User();
+		user.setUserId(String.valueOf(1_000_000_000L + index));
+		user.setFirstName(firstName(index));
+		user.setLastName(lastName(index));
+		user.setEmail(username(index) + "@example.com");
+		user.setUsername(username(index));
+		user.setRoleMask(isAdmin(index) ? ADMIN_ROLES : USER_ROLES);
+		user.setAuthorityMask(isAdmin(index) ? ADMIN_AUTHORITIES : USER_AUTHORITIES);
+		user.setActive(true);
+		user.setNotLocked(true);
+		return user;
+	}
+
+	/**
+	 * Inserts users 0 to count - 1, committing every batch
+	 * @param passwordHash the hash of PASSWORD, stored for every user
+	 */
+	static void insert(DataSource dataSource, int count, String passwordHash) throws SQLException {
+		Timestamp joinDate = new Timestamp(System.currentTimeMillis());
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement statement = connection.prepareStatement(INSERT_USER)) {
+			connection.setAutoCommit(false);
+			for (int index = 0; index < count; index++) {
+				User user = user(index);
+				statement.setString(1, user.getUserId());
+				statement.setString(2, user.getFirstName());
+				statement.setString(3, user.getLastName());
+				statement.setString(4, user.getEmail());
+				statement.setString(5, user.getUsername());
+				statement.setString(6, passwordHash);
+				statement.setTimestamp(7, joinDate);
+				statement.setLong(8, user.getRoleMask());
+				statement.setLong(9, user.getAuthorityMask());
+				statement.addBatch();
+				if ((index + 1) % BATCH_SIZE == 0 || index == count - 1) {
+					statement.executeBatch();
+					connection.commit();
+				}
+			}
+			connection.setAutoCommit(true);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package com.supportportal.supportportal.load;
+
+import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.service.impl.UserSearchIndex;
+import com.supportportal.supportportal.utility.JWTTokenProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*  Load harness, left out of mvn test: run it with mvn -Ploadtest test
+ *  Fills an in-memory H2 database with synthetic users, starts the application on a random port
+ *  and drives a mixed workload from concurrent clients, then prints the latency percentiles and throughput of each request type.
+ *  Everything runs in one JVM, so on a small machine the clients take CPU from the server: compare runs, not absolute numbers.
+ *  Settings, as system properties:
+ *  load.users      synthetic users in the database (100000)
+ *  load.clients    concurrent clients, each sending its next request as soon as the previous one is answered (16)
+ *  load.warmup     seconds of load before measuring (10)
+ *  load.duration   seconds measured (30)
+ *  load.mix        relative weight of each request type (login=5,find=45,search=15,list=10,bad-password=5,bad-token=20)
+ *  load.bcrypt-strength, load.throttle and load.log-level, see the properties below
+ *  Application properties can be set the same way, e.g. -Dspring.threads.virtual.enabled=true to compare the thread modes
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"bcrypt.min-strength=${load.bcrypt-strength:10}", // fixed cost, the synthetic hashes are never upgraded at login
+		"bcrypt.max-strength=${load.bcrypt-strength:10}",
+		"login.throttle.enabled=${load.throttle:false}", // all the logins come from one IP
+		"logging.level.com.supportportal=${load.log-level:WARN}", // one INFO line per login would flood the console
+		"image.directory=target/load/images"})
+class UserLoadTests {
+
+	private static final int USERS = Integer.getInteger("load.users", 100_000);
+	private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+	private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+	private static final String MIX = System.getProperty("load.mix", "login=5,find=45,search=15,list=10,bad-password=5,bad-token=20");
+	private static final int SESSIONS = 1000; // users holding a token, the others are only looked up
+
+	// The request types of the workload, the admin reads are the searches and the list pages
+	private enum RequestType {
+		LOGIN("login", false),              // HTTP Basic: user lookup and bcrypt
+		FIND("find", false),                // JWT: one user by username
+		SEARCH("search", false),            // JWT of an admin: type-ahead search
+		LIST("list", false),                // JWT of an admin: a page of users
+		BAD_PASSWORD("bad-password", true), // HTTP Basic with a wrong password
+		BAD_TOKEN("bad-token", true);       // JWT with a forged signature, the filter's exception ends as a 500
+
+		private final String name;
+		private final boolean rejected;
+
+		RequestType(String name, boolean rejected) {
+			this.name = name;
+			this.rejected = rejected;
+		}
+
+		// Any refusal is expected for a rejected request, the others must succeed
+		private boolean isExpected(int status) {
+			return rejected ? status >= 400 : status == 200;
+		}
+	}
+
+	@LocalServerPort
+	private int port;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private BCryptPasswordEncoder passwordEncoder;
+	@Autowired
+	private JWTTokenProvider jwtTokenProvider;
+	@Autowired
+	private UserSearchIndex userSearchIndex;
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final Map<RequestType, Timer> timers = new EnumMap<>(RequestType.class);
+	private final Map<RequestType, Counter> errors = new EnumMap<>(RequestType.class);
+	private String[] tokens;
+	private String adminToken;
+	private RequestType[] mix;
+
+	@Test
+	void mixedWorkload() throws Exception {
+		long start = System.nanoTime();
+		SyntheticUsers.insert(dataSource, USERS, passwordEncoder.encode(SyntheticUsers.PASSWORD));
+		userSearchIndex.rebuild();
+		System.out.printf("Generated %,d users in %,d ms%n", USERS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		tokens = new String[Math.min(SESSIONS, USERS)];
+		for (int i = 0; i < tokens.length; i++) {
+			tokens[i] = jwtTokenProvider.generateJwtToken(new UserPrincipal(SyntheticUsers.user(i)));
+		}
+		adminToken = tokens[0];
+		mix = parseMix(MIX);
+		for (RequestType type : RequestType.values()) {
+			timers.put(type, Timer.builder(type.name).publishPercentiles(0.5, 0.95, 0.99).percentilePrecision(2)
+					.distributionStatisticExpiry(Duration.ofDays(1)).distributionStatisticBufferLength(1).register(registry));
+			errors.put(type, registry.counter(type.name + ".errors"));
+		}
+
+		long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+		long end = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		try {
+			List<Future<?>> running = new ArrayList<>(CLIENTS);
+			for (int i = 0; i < CLIENTS; i++) {
+				running.add(clients.submit(() -> runClient(measureFrom, end)));
+			}
+			for (Future<?> client : running) {
+				client.get();
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+
+		report();
+		assertEquals(0, errors.values().stream().mapToDouble(Counter::count).sum(), "requests with an unexpected status");
+	}
+
+	private void runClient(long measureFrom, long end) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long now;
+		while ((now = System.nanoTime()) < end) {
+			RequestType type = mix[random.nextInt(mix.length)];
+			HttpRequest request = request(type, random);
+			int status;
+			try {
+				status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			} catch (Exception exception) {
+				status = -1;
+			}
+			long elapsed = System.nanoTime() - now;
+			if (now >= measureFrom) {
+				timers.get(type).record(elapsed, TimeUnit.NANOSECONDS);
+				if (!type.isExpected(status)) {
+					errors.get(type).increment();
+				}
+			}
+		}
+	}
+
+	private HttpRequest request(RequestType type, ThreadLocalRandom random) {
+		int session = random.nextInt(tokens.length);
+		int user = random.nextInt(USERS);
+		return switch (type) {
+			case LOGIN -> get("/user/find/" + SyntheticUsers.username(user), basic(user, SyntheticUsers.PASSWORD));
+			case FIND -> get("/user/find/" + SyntheticUsers.username(user), "Bearer " + tokens[session]);
+			case SEARCH -> get("/user/search?q=" + SyntheticUsers.lastName(user).substring(0, 3 + random.nextInt(3)),
+					"Bearer " + adminToken);
+			case LIST -> get("/user/list?size=50&after=" + random.nextInt(USERS), "Bearer " + adminToken);
+			case BAD_PASSWORD -> get("/user/find/" + SyntheticUsers.username(user), basic(user, "not-" + SyntheticUsers.PASSWORD));
+			case BAD_TOKEN -> get("/user/find/" + SyntheticUsers.username(user), "Bearer " + forge(tokens[session]));
+		};
+	}
+
+	private HttpRequest get(String path, String authorization) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header(HttpHeaders.AUTHORIZATION, authorization).timeout(Duration.ofSeconds(30)).build();
+	}
+
+	private static String basic(int user, String password) {
+		String credentials = SyntheticUsers.username(user) + ":" + password;
+		return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Same header and claims, different signature
+	private static String forge(String token) {
+		int signature = token.lastIndexOf('.') + 1;
+		char last = token.charAt(signature);
+		return token.substring(0, signature) + (last == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+	}
+
+	// Expands "login=5,find=45" into an array with every type repeated by its weight
+	private static RequestType[] parseMix(String mix) {
+		List<RequestType> types = new ArrayList<>();
+		for (String entry : mix.split(",")) {
+			String[] weight = entry.trim().split("=");
+			RequestType type = null;
+			for (RequestType candidate : RequestType.values()) {
+				if (candidate.name.equals(weight[0].trim())) {
+					type = candidate;
+				}
+			}
+			if (type == null) {
+				throw new IllegalArgumentException("Unknown request type in load.mix: " + weight[0]);
+			}
+			for (int i = Integer.parseInt(weight[1].trim()); i > 0; i--) {
+				types.add(type);
+			}
+		}
+		return types.toArray(RequestType[]::new);
+	}
+
+	private void report() {
+		System.out.printf("%n%,d users, %d clients, %d s measured after %d s of warmup%n", USERS, CLIENTS, DURATION_SECONDS, WARMUP_SECONDS);
+		System.out.printf("%-14s %10s %10s %10s %10s %10s %8s%n", "request", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+		long total = 0;
+		for (RequestType type : RequestType.values()) {
+			Timer timer = timers.get(type);
+			ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+			total += timer.count();
+			System.out.printf("%-14s %10d %10.1f %10.2f %10.2f %10.2f %8.0f%n", type.name, timer.count(),
+					(double) timer.count() / DURATION_SECONDS, percentiles[0].value(TimeUnit.MILLISECONDS),
+					percentiles[1].value(TimeUnit.MILLISECONDS), percentiles[2].value(TimeUnit.MILLISECONDS), errors.get(type).count());
+		}
+		System.out.printf("%-14s %10d %10.1f%n%n", "total", total, (double) total / DURATION_SECONDS);
+	}
+}
@@ -0,0 +1,80 @@
+package com.supportportal.supportportal.resource;
+
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.enumeration.Authority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs the whole security chain against an in-memory H2 database
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:resource;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"image.directory=target/resource/images"})
+@AutoConfigureMockMvc
+class UserResourceTests {
+
+	private static final String INSERT_JOHN = "INSERT INTO user (user_id, first_name, last_name, email, username, password, " +
+			"join_date, role_mask, authority_mask, is_active, is_not_locked, version) " +
+			"VALUES ('1000000001', 'John', 'Smith', 'john@example.com', 'john', 'unused', CURRENT_TIMESTAMP, ?, ?, TRUE, TRUE, 0)";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void insertJohn() {
+		if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user WHERE username = 'john'", Integer.class) == 0) {
+			jdbcTemplate.update(INSERT_JOHN, Authority.toMask("ROLE_USER"), Authority.toMask("user:read"));
+		}
+	}
+
+	// Stopped by the security chain: JWTAuthenticationEntryPoint answers 403, for a missing user as for an existing one
+	@Test
+	void anonymousCallersCannotFindUsers() throws Exception {
+		for (String url : new String[]{"/user/find/john", "/find/john", "/user/find/nobody"}) {
+			mockMvc.perform(get(url))
+					.andExpect(status().isForbidden())
+					.andExpect(jsonPath("$.message").value(SecurityConstant.FORBIDDEN_MESSAGE));
+		}
+	}
+
+	@Test
+	void usersWithoutReadAuthorityFindOnlyThemselves() throws Exception {
+		mockMvc.perform(get("/user/find/john").with(user("jane").authorities(() -> "user:update")))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/user/find/nobody").with(user("jane").authorities(() -> "user:update")))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/user/find/john").with(user("john").authorities(() -> "user:update")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.username").value("john"));
+	}
+
+	// JwtAccessDeniedHandler answers 401 to a signed-in user without the authority
+	@Test
+	void adminUrlsNeedTheAdminAuthority() throws Exception {
+		mockMvc.perform(get("/user/list")).andExpect(status().isForbidden());
+		mockMvc.perform(get("/user/list").with(user("jane").authorities(() -> "user:read")))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/list").with(user("admin").authorities(() -> "user:create")))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void readersFindOtherUsers() throws Exception {
+		mockMvc.perform(get("/user/find/john").with(user("jane").authorities(() -> "user:read")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("john@example.com"));
+	}
+}
@@ -0,0 +1,64 @@
+package com.supportportal.supportportal.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LastLoginRecorderTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final UserDirectory userDirectory = mock(UserDirectory.class);
+	private final LastLoginRecorder lastLoginRecorder =
+			new LastLoginRecorder(jdbcTemplate, userDirectory, mock(PlatformTransactionManager.class), 1000);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushWritesOnlyTheLatestLoginPerUserInOneBatch() {
+		lastLoginRecorder.recordLogin("john", new Date(2_000));
+		lastLoginRecorder.recordLogin("john", new Date(1_000));
+		lastLoginRecorder.recordLogin("jane", new Date(3_000));
+
+		assertEquals(2, lastLoginRecorder.flush());
+
+		ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+		assertEquals(2, batch.getValue().size());
+		Object[] john = batch.getValue().stream().filter(row -> row[1].equals("john")).findFirst().orElseThrow();
+		assertEquals(new Timestamp(2_000), john[0]);
+		assertEquals(0, lastLoginRecorder.getPendingCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushEvictsTheCachedEntitiesOfTheUpdatedUsers() {
+		// jane already holds a newer login, her row and version are left alone
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> ((List<Object[]>) invocation.getArgument(1)).stream()
+				.mapToInt(row -> row[1].equals("jane") ? 0 : 1).toArray());
+		lastLoginRecorder.recordLogin("john", new Date(1_000));
+		lastLoginRecorder.recordLogin("jane", new Date(1_000));
+
+		assertEquals(2, lastLoginRecorder.flush());
+
+		verify(userDirectory).evictEntities(List.of("john"));
+	}
+
+	@Test
+	void failedFlushKeepsTheLoginsForTheNextAttempt() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("database down"));
+		lastLoginRecorder.recordLogin("john", new Date());
+
+		assertEquals(0, lastLoginRecorder.flush());
+		assertEquals(1, lastLoginRecorder.getPendingCount());
+		verifyNoInteractions(userDirectory);
+	}
+
+}
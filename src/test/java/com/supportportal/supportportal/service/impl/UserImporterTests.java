@@ -0,0 +1,33 @@
+package com.supportportal.supportportal.service.impl;
+
+import com.supportportal.supportportal.enumeration.Authority;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImporterTests {
+
+	@Test
+	void parseCsvLineSplitsOnCommasOutsideQuotes() {
+		assertEquals(List.of("John", "Doe, Jr.", "john", ""), UserImporter.parseCsvLine("John,\"Doe, Jr.\", john ,"));
+	}
+
+	@Test
+	void parseCsvLineUnescapesDoubledQuotes() {
+		assertEquals(List.of("say \"hi\"", "x"), UserImporter.parseCsvLine("\"say \"\"hi\"\"\",x"));
+	}
+
+	@Test
+	void rowsCannotGetMoreThanTheImporterHolds() {
+		long adminRole = Authority.toMask("ROLE_ADMIN");
+		long adminAuthorities = Authority.toMask("user:read", "user:create", "user:update");
+
+		assertNull(UserImporter.deniedGrant(Authority.toMask("ROLE_ADMIN"), Authority.toMask("user:read", "user:create"), adminRole, adminAuthorities));
+		assertEquals("Cannot grant a role above your own: ROLE_SUPER_ADMIN",
+				UserImporter.deniedGrant(Authority.toMask("ROLE_SUPER_ADMIN"), Authority.toMask("user:read"), adminRole, adminAuthorities));
+		assertEquals("Cannot grant authorities you do not hold: user:delete",
+				UserImporter.deniedGrant(Authority.toMask("ROLE_USER"), Authority.toMask("user:read", "user:delete"), adminRole, adminAuthorities));
+	}
+}
@@ -0,0 +1,79 @@
+package com.supportportal.supportportal.service.impl;
+
+import com.supportportal.supportportal.domain.UserSearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTests {
+
+	private static List<String> usernames(List<UserSearchResult> results) {
+		return results.stream().map(UserSearchResult::username).toList();
+	}
+
+	private static UserSearchIndex index() {
+		UserSearchIndex index = new UserSearchIndex(null);
+		index.put(1, "jdoe", "john.doe@example.com", "John", "Doe");
+		index.put(2, "mjohnson", "mary@example.com", "Mary", "Adams");
+		index.put(3, "asmith", "anna@smith.org", "Anna", "Smith");
+		return index;
+	}
+
+	@Test
+	void findsSubstringsOfAnyFieldIgnoringCase() {
+		UserSearchIndex index = index();
+
+		assertEquals(List.of("jdoe", "mjohnson"), usernames(index.search("JOHN", 10)));
+		assertEquals(List.of("asmith"), usernames(index.search("mith.o", 10)));
+		assertEquals(List.of(), index.search("johnny", 10));
+	}
+
+	@Test
+	void listsPrefixMatchesFirst() {
+		UserSearchIndex index = index();
+
+		List<UserSearchResult> results = index.search("jo", 10);
+		assertEquals(List.of("jdoe", "mjohnson"), usernames(results));
+		assertTrue(results.get(0).prefixMatch());
+		assertFalse(results.get(1).prefixMatch());
+
+		assertEquals(List.of("mjohnson", "jdoe", "asmith"), usernames(index.search("m", 10)));
+	}
+
+	@Test
+	void stopsAtTheLimit() {
+		UserSearchIndex index = index();
+
+		assertEquals(1, index.search("example", 1).size());
+		assertEquals(List.of(), index.search("   ", 10));
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		UserSearchIndex index = index();
+		index.put(1, "jdoe", "jane.doe@example.com", "Jane", "Doe");
+		index.remove(2);
+
+		assertEquals(List.of(), index.search("john", 10));
+		assertEquals(List.of("jdoe"), usernames(index.search("jane", 10)));
+		assertEquals(2, index.size());
+		assertEquals(2, index.getStats().users());
+	}
+
+	@Test
+	void compactsAfterManyRemovals() {
+		UserSearchIndex index = new UserSearchIndex(null);
+		for (int id = 0; id < 4000; id++) {
+			index.put(id, "user" + id, "user" + id + "@example.com", "First", "Last");
+		}
+		for (int id = 0; id < 2000; id++) {
+			index.remove(id);
+		}
+
+		assertTrue(index.getStats().slots() < 4000);
+		assertEquals(List.of("user3999"), usernames(index.search("user3999", 10)));
+		assertEquals(List.of(), index.search("user1999", 10));
+	}
+}
@@ -0,0 +1,76 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.exception.domain.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBCryptPasswordEncoderTests {
+
+	@Test
+	void encodesAndMatchesOnTheExecutor() {
+		ThreadPoolExecutor executor = newExecutor();
+		try {
+			BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder(4, executor, new SimpleMeterRegistry());
+
+			String encodedPassword = encoder.encode("secret");
+
+			assertTrue(encoder.matches("secret", encodedPassword));
+			assertFalse(encoder.matches("wrong", encodedPassword));
+			assertEquals(3, executor.getTaskCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void rejectsRightAwayWhenTheQueueIsFull() throws Exception {
+		ThreadPoolExecutor executor = newExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			executor.execute(() -> await(release)); // occupies the only thread
+			executor.execute(() -> await(release)); // fills the queue
+			BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder(4, executor, new SimpleMeterRegistry());
+
+			assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("secret"));
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void upgradesOnlyHashesBelowTheCalibratedStrength() {
+		BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder(5, newExecutor(), new SimpleMeterRegistry());
+
+		assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+		assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))); // another node calibrated higher
+		assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+	}
+
+	@Test
+	void calibrationStaysWithinTheBounds() {
+		assertEquals(10, BoundedBCryptPasswordEncoder.calibrate(1, 10, 16));
+		assertEquals(5, BoundedBCryptPasswordEncoder.calibrate(60_000, 4, 5));
+	}
+
+	private static ThreadPoolExecutor newExecutor() {
+		return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
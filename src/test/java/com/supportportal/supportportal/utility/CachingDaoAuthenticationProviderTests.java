@@ -0,0 +1,71 @@
+package com.supportportal.supportportal.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingDaoAuthenticationProviderTests {
+
+	private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder(4);
+	private static final UserDetails JDOE = User.withUsername("jdoe").password(ENCODER.encode("secret")).roles("USER").build();
+
+	private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+	private final VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60_000, 100);
+	private final CachingDaoAuthenticationProvider provider = new CachingDaoAuthenticationProvider(userDetailsService, cache);
+
+	CachingDaoAuthenticationProviderTests() {
+		provider.setPasswordEncoder(ENCODER);
+		when(userDetailsService.loadUserByUsername("jdoe")).thenReturn(JDOE);
+	}
+
+	private Authentication login(String password) {
+		return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("jdoe", password));
+	}
+
+	@Test
+	void repeatedCredentialsAreCheckedOnce() {
+		assertTrue(login("secret").isAuthenticated());
+		Authentication cached = login("secret");
+
+		assertTrue(cached.isAuthenticated());
+		assertSame(JDOE, cached.getPrincipal());
+		verify(userDetailsService, times(1)).loadUserByUsername("jdoe");
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	void anotherPasswordIsCheckedAgain() {
+		login("secret");
+
+		assertThrows(BadCredentialsException.class, () -> login("guess"));
+		verify(userDetailsService, times(2)).loadUserByUsername("jdoe");
+	}
+
+	@Test
+	void invalidatedCredentialsAreCheckedAgain() {
+		login("secret");
+		cache.invalidate("jdoe");
+		login("secret");
+
+		verify(userDetailsService, times(2)).loadUserByUsername("jdoe");
+	}
+
+	@Test
+	void aCheckOverlappingAnInvalidationIsNotCached() {
+		when(userDetailsService.loadUserByUsername("jdoe")).thenAnswer(invocation -> {
+			cache.invalidate("jdoe"); // e.g. the password changed while the old one was being verified
+			return JDOE;
+		});
+		login("secret");
+
+		assertEquals(0, cache.size());
+	}
+}
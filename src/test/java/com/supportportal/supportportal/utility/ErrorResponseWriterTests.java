@@ -0,0 +1,52 @@
+package com.supportportal.supportportal.utility;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.supportportal.supportportal.domain.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorResponseWriterTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesTheSameJsonAsSerializingAnHttpResponse() throws Exception {
+		ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter(objectMapper);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		errorResponseWriter.write(response, HttpStatus.FORBIDDEN, "You need to log in to access this page");
+
+		assertEquals(403, response.getStatus());
+		assertEquals("application/json", response.getContentType());
+		assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+		JsonNode written = objectMapper.readTree(response.getContentAsByteArray());
+		JsonNode expected = objectMapper.valueToTree(new HttpResponse(403, HttpStatus.FORBIDDEN, "FORBIDDEN", "You need to log in to access this page"));
+		assertTrue(written.get("timeStamp").asText().matches("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}:\\d{2}"));
+		((ObjectNode) written).remove("timeStamp");
+		((ObjectNode) expected).remove("timeStamp");
+		assertEquals(expected, written);
+	}
+
+	@Test
+	void serializesEachMessageOnlyOnce() throws Exception {
+		ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter(objectMapper);
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		MockHttpServletResponse again = new MockHttpServletResponse();
+		MockHttpServletResponse other = new MockHttpServletResponse();
+
+		errorResponseWriter.write(first, HttpStatus.UNAUTHORIZED, "denied");
+		errorResponseWriter.write(again, HttpStatus.UNAUTHORIZED, "denied");
+		assertEquals(1, errorResponseWriter.getTemplateCount());
+		assertTrue(again.getContentAsString().contains("\"message\":\"denied\""));
+
+		errorResponseWriter.write(other, HttpStatus.UNAUTHORIZED, "other");
+		assertEquals(2, errorResponseWriter.getTemplateCount());
+		assertTrue(other.getContentAsString().contains("\"message\":\"other\""));
+		assertTrue(other.getContentAsString().contains("\"reason\":\"UNAUTHORIZED\""));
+	}
+}
@@ -0,0 +1,80 @@
+package com.supportportal.supportportal.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLoadingCacheTests {
+
+	@Test
+	void concurrentMissesForTheSameKeyLoadOnlyOnce() throws Exception {
+		ExpiringLoadingCache<String, String> cache = new ExpiringLoadingCache<>(1, TimeUnit.MINUTES, 100);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return cache.get("john", key -> {
+						loads.incrementAndGet();
+						sleep(100);
+						return key.toUpperCase();
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<String> result : results) {
+				assertEquals("JOHN", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(7, cache.getHitCount());
+	}
+
+	@Test
+	void expiredAndInvalidatedEntriesAreReloaded() {
+		ExpiringLoadingCache<String, Integer> cache = new ExpiringLoadingCache<>(0, TimeUnit.MILLISECONDS, 100);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("john", key -> loads.incrementAndGet());
+		cache.get("john", key -> loads.incrementAndGet());
+		assertEquals(2, loads.get());
+
+		ExpiringLoadingCache<String, Integer> longLived = new ExpiringLoadingCache<>(1, TimeUnit.MINUTES, 100);
+		longLived.get("john", key -> 1);
+		longLived.invalidate("john");
+		assertEquals(2, longLived.get("john", key -> 2));
+	}
+
+	@Test
+	void nullValuesAreNotCached() {
+		ExpiringLoadingCache<String, String> cache = new ExpiringLoadingCache<>(1, TimeUnit.MINUTES, 100);
+
+		assertNull(cache.get("john", key -> null));
+		assertEquals(0, cache.size());
+		assertEquals("john", cache.get("john", key -> key));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.supportportal.supportportal.utility;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.supportportal.supportportal.constant.SecurityConstant;
+import com.supportportal.supportportal.domain.User;
+import com.supportportal.supportportal.domain.UserPrincipal;
+import com.supportportal.supportportal.domain.VerifiedToken;
+import com.supportportal.supportportal.enumeration.Authority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTTokenProviderTests {
+
+	private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(true, 100);
+	private final JWTTokenProvider jwtTokenProvider = new JWTTokenProvider("test-secret", verifiedTokenCache, new SimpleMeterRegistry());
+
+	@Test
+	void verifyTokenReturnsSubjectAuthoritiesAndExpiry() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read", "user:update"});
+		UserPrincipal userPrincipal = new UserPrincipal(user);
+		String token = jwtTokenProvider.generateJwtToken(userPrincipal);
+
+		VerifiedToken verifiedToken = jwtTokenProvider.verifyToken(token);
+
+		assertEquals("john", verifiedToken.getSubject());
+		assertEquals(2, verifiedToken.getAuthorities().size());
+		assertEquals("user:read", verifiedToken.getAuthorities().get(0).getAuthority());
+		assertNotNull(verifiedToken.getExpiresAt());
+		assertTrue(jwtTokenProvider.isTokenValid(verifiedToken));
+		assertSame(userPrincipal.getAuthorities(), verifiedToken.getAuthorities());
+		assertThrows(UnsupportedOperationException.class,
+				() -> verifiedToken.getAuthorities().add((GrantedAuthority) () -> "user:delete"));
+	}
+
+	@Test
+	void verifyTokenRejectsTokenSignedWithAnotherSecret() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read"});
+		String token = new JWTTokenProvider("other-secret", new VerifiedTokenCache(false, 0), new SimpleMeterRegistry()).generateJwtToken(new UserPrincipal(user));
+
+		assertThrows(JWTVerificationException.class, () -> jwtTokenProvider.verifyToken(token));
+	}
+
+	@Test
+	void authoritiesAreCarriedAsOneBitmaskClaim() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read", "user:delete"});
+		String token = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+
+		DecodedJWT decodedJWT = JWT.decode(token);
+
+		assertEquals(Authority.USER_READ.getMask() | Authority.USER_DELETE.getMask(),
+				decodedJWT.getClaim(SecurityConstant.AUTHORITIES).asLong());
+		assertEquals(List.of("user:read", "user:delete"),
+				jwtTokenProvider.verifyToken(token).getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+	}
+
+	@Test
+	void tokensWithAnAuthorityArrayAreStillAccepted() {
+		String token = JWT.create()
+				.withIssuer(SecurityConstant.GET_ARRAYS_LLC)
+				.withSubject("john")
+				.withArrayClaim(SecurityConstant.AUTHORITIES, new String[]{"user:read"})
+				.withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+				.sign(Algorithm.HMAC512("test-secret"));
+
+		assertEquals("user:read", jwtTokenProvider.verifyToken(token).getAuthorities().get(0).getAuthority());
+	}
+
+	@Test
+	void repeatedVerificationIsServedFromTheCache() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read"});
+		String token = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+
+		VerifiedToken first = jwtTokenProvider.verifyToken(token);
+		VerifiedToken second = jwtTokenProvider.verifyToken(token);
+
+		assertSame(first, second);
+		assertEquals(1, verifiedTokenCache.getMissCount());
+		assertEquals(1, verifiedTokenCache.getHitCount());
+	}
+
+	@Test
+	void rotatedKeysKeepVerifyingTheTokensTheySigned() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read"});
+		KeyPair oldKey = JwtSigningKeys.generateKeyPair(JwtSigningKeys.ES256);
+		KeyPair newKey = JwtSigningKeys.generateKeyPair(JwtSigningKeys.ES256);
+		JWTTokenProvider beforeRotation = new JWTTokenProvider(JwtSigningKeys.asymmetric(JwtSigningKeys.ES256, Map.of("2026-01", oldKey), null),
+				new VerifiedTokenCache(false, 0), new SimpleMeterRegistry());
+		String oldToken = beforeRotation.generateJwtToken(new UserPrincipal(user));
+
+		// the new pair signs, the old one is kept without its private key until its tokens have expired
+		JWTTokenProvider afterRotation = new JWTTokenProvider(JwtSigningKeys.asymmetric(JwtSigningKeys.ES256,
+				Map.of("2026-01", new KeyPair(oldKey.getPublic(), null), "2026-02", newKey), null),
+				new VerifiedTokenCache(false, 0), new SimpleMeterRegistry());
+		String newToken = afterRotation.generateJwtToken(new UserPrincipal(user));
+
+		assertEquals("2026-01", JWT.decode(oldToken).getKeyId());
+		assertEquals("2026-02", JWT.decode(newToken).getKeyId());
+		assertEquals("john", afterRotation.verifyToken(oldToken).getSubject());
+		assertEquals("john", afterRotation.verifyToken(newToken).getSubject());
+		assertThrows(JWTVerificationException.class, () -> beforeRotation.verifyToken(newToken));
+	}
+
+	@Test
+	void asymmetricModeRejectsHmacTokens() {
+		User user = new User();
+		user.setUsername("john");
+		user.setAuthorities(new String[]{"user:read"});
+		JWTTokenProvider rsaProvider = new JWTTokenProvider(JwtSigningKeys.asymmetric(JwtSigningKeys.RS256,
+				Map.of("rsa", JwtSigningKeys.generateKeyPair(JwtSigningKeys.RS256)), null), new VerifiedTokenCache(false, 0), new SimpleMeterRegistry());
+		String hmacToken = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+
+		assertNull(JWT.decode(hmacToken).getKeyId());
+		assertThrows(JWTVerificationException.class, () -> rsaProvider.verifyToken(hmacToken));
+		assertEquals("john", rsaProvider.verifyToken(rsaProvider.generateJwtToken(new UserPrincipal(user))).getSubject());
+	}
+}
@@ -0,0 +1,64 @@
+package com.supportportal.supportportal.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtSigningKeysTests {
+
+	@TempDir
+	Path keyDirectory;
+
+	@Test
+	void loadsPemKeysAndSignsWithTheGreatestKidThatHasAPrivateKey() throws IOException {
+		KeyPair first = JwtSigningKeys.generateKeyPair(JwtSigningKeys.RS256);
+		KeyPair second = JwtSigningKeys.generateKeyPair(JwtSigningKeys.RS256);
+		writePem(keyDirectory.resolve("2026-01.pub"), "PUBLIC KEY", first.getPublic().getEncoded());
+		writePem(keyDirectory.resolve("2026-01.key"), "PRIVATE KEY", first.getPrivate().getEncoded());
+		writePem(keyDirectory.resolve("2026-02.pub"), "PUBLIC KEY", second.getPublic().getEncoded());
+		writePem(keyDirectory.resolve("2026-02.key"), "PRIVATE KEY", second.getPrivate().getEncoded());
+		writePem(keyDirectory.resolve("2026-03.pub"), "PUBLIC KEY", JwtSigningKeys.generateKeyPair(JwtSigningKeys.RS256).getPublic().getEncoded());
+
+		JwtSigningKeys jwtSigningKeys = new JwtSigningKeys(JwtSigningKeys.RS256, "unused", keyDirectory.toString(), "");
+
+		assertEquals("2026-02", jwtSigningKeys.getSigningKeyId());
+		assertEquals(List.of("2026-01", "2026-02", "2026-03"), List.copyOf(jwtSigningKeys.getVerificationAlgorithms().keySet()));
+		Map<String, String> jsonWebKey = jwtSigningKeys.getJsonWebKeys().get(0);
+		assertEquals("RSA", jsonWebKey.get("kty"));
+		assertEquals("2026-01", jsonWebKey.get("kid"));
+		assertEquals("RS256", jsonWebKey.get("alg"));
+		assertEquals("AQAB", jsonWebKey.get("e"));
+	}
+
+	@Test
+	void publishesP256KeysWithFixedLengthCoordinates() {
+		JwtSigningKeys jwtSigningKeys = JwtSigningKeys.asymmetric(JwtSigningKeys.ES256,
+				Map.of("ec", JwtSigningKeys.generateKeyPair(JwtSigningKeys.ES256)), null);
+
+		Map<String, String> jsonWebKey = jwtSigningKeys.getJsonWebKeys().get(0);
+		assertEquals("EC", jsonWebKey.get("kty"));
+		assertEquals("P-256", jsonWebKey.get("crv"));
+		assertEquals(32, Base64.getUrlDecoder().decode(jsonWebKey.get("x")).length);
+		assertEquals(32, Base64.getUrlDecoder().decode(jsonWebKey.get("y")).length);
+	}
+
+	@Test
+	void neverPublishesTheHmacSecret() {
+		assertTrue(JwtSigningKeys.hmac("secret").getJsonWebKeys().isEmpty());
+		assertNull(JwtSigningKeys.hmac("secret").getSigningKeyId());
+	}
+
+	private static void writePem(Path file, String type, byte[] der) throws IOException {
+		String base64 = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der);
+		Files.writeString(file, "-----BEGIN " + type + "-----\n" + base64 + "\n-----END " + type + "-----\n");
+	}
+}
@@ -0,0 +1,77 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.exception.domain.NotAnImageFileException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileImageStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void storesImagesUnderTheirContentHashWithASquareThumbnail() throws Exception {
+		ProfileImageStore profileImageStore = new ProfileImageStore(directory.toString(), 64, 4096);
+		byte[] png = png(300, 200);
+
+		String name = profileImageStore.store(new ByteArrayInputStream(png));
+
+		assertTrue(name.matches("[0-9a-f]{64}\\.png"));
+		assertEquals(name, profileImageStore.store(new ByteArrayInputStream(png)));
+		BufferedImage thumbnail = ImageIO.read(profileImageStore.resolve(profileImageStore.getThumbnailName(name)).toFile());
+		assertEquals(64, thumbnail.getWidth());
+		assertEquals(64, thumbnail.getHeight());
+		try (var files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+	}
+
+	@Test
+	void recreatesAMissingThumbnailOnResolve() throws Exception {
+		ProfileImageStore profileImageStore = new ProfileImageStore(directory.toString(), 64, 4096);
+		String name = profileImageStore.store(new ByteArrayInputStream(png(10, 10)));
+		String thumbnailName = profileImageStore.getThumbnailName(name);
+		Files.delete(directory.resolve(thumbnailName));
+
+		assertNotNull(profileImageStore.resolve(thumbnailName));
+		assertTrue(Files.exists(directory.resolve(thumbnailName)));
+	}
+
+	@Test
+	void rejectsFilesThatAreNotImagesOrTooLarge() throws Exception {
+		ProfileImageStore profileImageStore = new ProfileImageStore(directory.toString(), 64, 100);
+
+		assertThrows(NotAnImageFileException.class,
+				() -> profileImageStore.store(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))));
+		assertThrows(NotAnImageFileException.class, () -> profileImageStore.store(new ByteArrayInputStream(png(101, 10))));
+		try (var files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	@Test
+	void resolvesOnlyItsOwnNames() throws Exception {
+		ProfileImageStore profileImageStore = new ProfileImageStore(directory.toString(), 64, 4096);
+
+		assertNull(profileImageStore.resolve("../secret.png"));
+		assertNull(profileImageStore.resolve("a".repeat(64) + ".png"));
+		assertNull(profileImageStore.resolve("a".repeat(64) + "-32.jpg"));
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+		return output.toByteArray();
+	}
+}
@@ -0,0 +1,120 @@
+package com.supportportal.supportportal.utility;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTests {
+
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection replicaConnection = mock(Connection.class);
+	private final AtomicReference<Object> replicaLag = new AtomicReference<>(0L);
+	private final ReadYourWrites readYourWrites = new ReadYourWrites(true, List.of("jdbc:replica-1"), 10_000);
+	private final ReadWriteRoutingDataSource dataSource;
+
+	ReadWriteRoutingDataSourceTests() throws SQLException {
+		HikariDataSource primary = mock(HikariDataSource.class);
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		HikariDataSource replica = mock(HikariDataSource.class);
+		when(replica.getConnection()).thenReturn(replicaConnection);
+		Statement statement = mock(Statement.class);
+		ResultSet resultSet = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(replicaConnection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(true);
+		when(resultSet.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(1);
+		when(metaData.getColumnLabel(anyInt())).thenReturn("lag");
+		when(resultSet.getObject(1)).thenAnswer(invocation -> replicaLag.get());
+		dataSource = new ReadWriteRoutingDataSource(primary, Map.of("replica-1", replica), 5, "select lag", 60_000, readYourWrites);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.close();
+		SecurityContextHolder.clearContext();
+	}
+
+	private Connection target(boolean readOnly) throws SQLException {
+		Connection connection = dataSource.getConnection();
+		connection.setReadOnly(readOnly);
+		return ((ConnectionProxy) connection).getTargetConnection();
+	}
+
+	@Test
+	void readOnlyConnectionsGoToAReplicaInSync() throws SQLException {
+		dataSource.checkLag();
+
+		assertEquals(List.of("replica-1"), dataSource.getReplicasInSync());
+		assertSame(replicaConnection, target(true));
+		assertSame(primaryConnection, target(false));
+	}
+
+	@Test
+	void readsFallBackToThePrimaryWhenTheReplicaLags() throws SQLException {
+		replicaLag.set(30L);
+		dataSource.checkLag();
+		assertSame(primaryConnection, target(true));
+
+		replicaLag.set(null); // not replicating
+		dataSource.checkLag();
+		assertTrue(dataSource.getReplicasInSync().isEmpty());
+		assertSame(primaryConnection, target(true));
+	}
+
+	@Test
+	void aUserReadsTheirOwnWritesFromThePrimary() throws SQLException {
+		dataSource.checkLag();
+		SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("jdoe", null, List.of()));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			target(false);
+			TransactionSynchronizationUtils.triggerAfterCommit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertSame(primaryConnection, target(true));
+
+		SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("asmith", null, List.of()));
+		assertSame(replicaConnection, target(true));
+	}
+
+	@Test
+	void aChangedUserIsLookedUpFromThePrimaryBeforeAnyAuthentication() throws SQLException {
+		dataSource.checkLag();
+		readYourWrites.pin("jdoe"); // e.g. a password re-hashed during someone's login, no principal involved
+
+		assertSame(primaryConnection, readYourWrites.lookUp("jdoe", this::uncheckedTarget));
+		assertSame(replicaConnection, readYourWrites.lookUp("asmith", this::uncheckedTarget));
+		assertSame(replicaConnection, target(true));
+	}
+
+	private Connection uncheckedTarget() {
+		try {
+			return target(true);
+		} catch (SQLException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.constant.MetricConstant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SqlStatisticsTests {
+
+	private static final String SELECT_USER = "select u.id from user u where u.username=?";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SqlStatistics statistics = new SqlStatistics(true, 100, 0, 3, registry);
+
+	private static DataSource dataSource() throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+		when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+		return dataSource;
+	}
+
+	@Test
+	void countsTheStatementsOfARequest() throws SQLException {
+		DataSource dataSource = new InstrumentedDataSource(dataSource(), () -> statistics);
+
+		statistics.begin("GET /user/list");
+		try (Connection connection = dataSource.getConnection()) {
+			connection.prepareStatement(SELECT_USER).executeQuery();
+			connection.createStatement().execute("select 1");
+		}
+		statistics.end("GET", "/user/list");
+
+		assertEquals(2, registry.get(MetricConstant.SQL_STATEMENTS).timer().count());
+		assertEquals(2, registry.get(MetricConstant.SQL_REQUEST_QUERIES).tag(MetricConstant.URI, "/user/list").summary().totalAmount());
+		assertTrue(registry.find(MetricConstant.SQL_REPEATED).counters().isEmpty());
+	}
+
+	@Test
+	void reportsAStatementRepeatedWithinARequest() throws SQLException {
+		DataSource dataSource = new InstrumentedDataSource(dataSource(), () -> statistics);
+
+		statistics.begin("GET /user/list");
+		try (Connection connection = dataSource.getConnection()) {
+			for (int i = 0; i < 3; i++) {
+				connection.prepareStatement(SELECT_USER).executeQuery();
+			}
+		}
+		statistics.end("GET", "/user/list");
+
+		assertEquals(1, registry.get(MetricConstant.SQL_REPEATED).tag(MetricConstant.URI, "/user/list").counter().count());
+	}
+
+	@Test
+	void statementsOutsideARequestOnlyFeedTheStatementTimer() throws SQLException {
+		DataSource dataSource = new InstrumentedDataSource(dataSource(), () -> statistics);
+
+		try (Connection connection = dataSource.getConnection()) {
+			PreparedStatement statement = connection.prepareStatement(SELECT_USER);
+			statement.executeQuery();
+			assertSame(connection, statement.getConnection());
+		}
+
+		assertEquals(1, registry.get(MetricConstant.SQL_STATEMENTS).timer().count());
+		assertTrue(registry.find(MetricConstant.SQL_REQUEST_QUERIES).summaries().isEmpty());
+	}
+}
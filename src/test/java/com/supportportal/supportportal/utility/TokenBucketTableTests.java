@@ -0,0 +1,37 @@
+package com.supportportal.supportportal.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void emptiesAfterBurstAndRefillsAtTheConfiguredRate() {
+		TokenBucketTable buckets = new TokenBucketTable(1024, 6, 3); // one token back every 10 seconds
+		long now = SECOND;
+		for (int attempt = 0; attempt < 3; attempt++) {
+			assertEquals(0, buckets.getWaitNanos("john", now));
+			buckets.consume("john", now);
+		}
+		assertEquals(10 * SECOND, buckets.getWaitNanos("john", now));
+		assertEquals(0, buckets.getWaitNanos("john", now + 10 * SECOND));
+	}
+
+	@Test
+	void keysDoNotShareABucket() {
+		TokenBucketTable buckets = new TokenBucketTable(1024, 1, 1);
+		buckets.consume("john", SECOND);
+
+		assertTrue(buckets.getWaitNanos("john", SECOND) > 0);
+		assertEquals(0, buckets.getWaitNanos("jane", SECOND));
+	}
+
+	@Test
+	void roundsTheCellCountUpToAPowerOfTwo() {
+		assertEquals(1024, new TokenBucketTable(1000, 1, 1).getCellCount());
+		assertEquals(1024, new TokenBucketTable(1024, 1, 1).getCellCount());
+	}
+}
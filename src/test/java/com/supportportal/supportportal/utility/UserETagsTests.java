@@ -0,0 +1,26 @@
+package com.supportportal.supportportal.utility;
+
+import com.supportportal.supportportal.domain.UserVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserETagsTests {
+
+	@Test
+	void tagsAUserByIdAndVersion() {
+		assertEquals("\"7-3\"", UserETags.of(new UserVersion(7L, 3)));
+	}
+
+	@Test
+	void pageTagChangesWithAnyVersionOrMembership() {
+		String page = UserETags.ofPage(List.of(new UserVersion(1L, 0), new UserVersion(2L, 0)));
+
+		assertEquals(page, UserETags.ofPage(List.of(new UserVersion(1L, 0), new UserVersion(2L, 0))));
+		assertNotEquals(page, UserETags.ofPage(List.of(new UserVersion(1L, 0), new UserVersion(2L, 1))));
+		assertNotEquals(page, UserETags.ofPage(List.of(new UserVersion(1L, 0), new UserVersion(3L, 0))));
+		assertNotEquals(page, UserETags.ofPage(List.of(new UserVersion(1L, 0))));
+	}
+}